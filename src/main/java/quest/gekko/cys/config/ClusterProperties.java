@@ -0,0 +1,37 @@
+package quest.gekko.cys.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Configuration properties shared by the pieces that coordinate several app instances
+ */
+@Configuration
+@EnableConfigurationProperties(ClusterProperties.Node.class)
+public class ClusterProperties {
+
+    /**
+     * @param id recorded on task leases, job locks and job history; defaults to host name and pid
+     */
+    @ConfigurationProperties("cluster.node")
+    public record Node(String id) {
+
+        public Node {
+            if (id == null || id.isBlank()) id = defaultId();
+        }
+
+        private static String defaultId() {
+            String host;
+            try {
+                host = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                host = "unknown";
+            }
+            return host + ":" + ProcessHandle.current().pid();
+        }
+    }
+}
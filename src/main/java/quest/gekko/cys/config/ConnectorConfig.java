@@ -1,21 +1,35 @@
 package quest.gekko.cys.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.ChannelRepository;
+import quest.gekko.cys.service.integration.connector.CoalescingConnector;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.integration.connector.SearchCachingConnector;
 
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Configuration
 public class ConnectorConfig {
 
+    /**
+     * The connectors application code should use, keyed by platform: identical concurrent calls
+     * are coalesced, then searches go through the shared result cache. Injecting
+     * {@code List<PlatformConnector>} gets the bare connectors.
+     */
     @Bean
-    public Map<Platform, PlatformConnector> connectorsByPlatform(List<PlatformConnector> connectors) {
+    public Map<Platform, PlatformConnector> connectorsByPlatform(List<PlatformConnector> connectors,
+                                                                 ChannelRepository channelRepository,
+                                                                 SocialProperties.SearchCache searchCache,
+                                                                 MeterRegistry meterRegistry) {
         return connectors.stream()
-                .collect(Collectors.toMap(PlatformConnector::platform, Function.identity()));
+                .collect(Collectors.toMap(PlatformConnector::platform,
+                        c -> new CoalescingConnector(
+                                new SearchCachingConnector(c, channelRepository, searchCache, meterRegistry),
+                                meterRegistry)));
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package quest.gekko.cys.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.context.annotation.Configuration;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RefreshTier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Configuration properties for the stats ingestion pipeline
+ */
+@Configuration
+@EnableConfigurationProperties({
+        IngestionProperties.Engine.class,
+        IngestionProperties.Queue.class,
+        IngestionProperties.Tiers.class,
+        IngestionProperties.Sampling.class,
+        IngestionProperties.Ranking.class
+})
+public class IngestionProperties {
+
+    /**
+     * @param chunkSize      channels read from the database per keyset page
+     * @param fetchBatchSize channels per connector counters call
+     * @param queueCapacity  fetched batches allowed to wait for the writer
+     * @param concurrency    in-flight connector calls allowed per platform
+     */
+    @ConfigurationProperties("ingestion.engine")
+    public record Engine(@DefaultValue("500") int chunkSize,
+                         @DefaultValue("50") int fetchBatchSize,
+                         @DefaultValue("64") int queueCapacity,
+                         @DefaultValue("4") int defaultConcurrency,
+                         Map<Platform, Integer> concurrency) {
+
+        public int concurrencyFor(Platform platform) {
+            Integer limit = concurrency != null ? concurrency.get(platform) : null;
+            return Math.max(1, limit != null ? limit : defaultConcurrency);
+        }
+    }
+
+    /**
+     * The shared {@code snapshot_task} queue that lets every node work on the same run.
+     *
+     * @param taskSize     channels per task; each task is committed in one transaction
+     * @param claimSize    tasks a node claims at once
+     * @param lease        how long a claimed task stays invisible to other nodes
+     * @param pollInterval wait between claims while the remaining tasks are leased elsewhere
+     */
+    @ConfigurationProperties("ingestion.queue")
+    public record Queue(@DefaultValue("500") int taskSize,
+                        @DefaultValue("4") int claimSize,
+                        @DefaultValue("5m") Duration lease,
+                        @DefaultValue("5s") Duration pollInterval) {}
+
+    /**
+     * Thresholds for {@code RefreshPlanner}. Size is subscribers (or followers); growth is the
+     * average relative change per day over {@code growthWindowDays}, e.g. 0.01 = 1% a day.
+     *
+     * @param slack subtracted from each tier's interval so a channel refreshed a little late
+     *              is still due at the same hourly firing next time
+     */
+    @ConfigurationProperties("ingestion.tiers")
+    public record Tiers(@DefaultValue("7") int growthWindowDays,
+                        @DefaultValue("10000000") long hourlyMinSize,
+                        @DefaultValue("0.01") double hourlyMinGrowth,
+                        @DefaultValue("10000") long dailyMinSize,
+                        @DefaultValue("0.001") double dailyMinGrowth,
+                        @DefaultValue("1000") long weeklyMinSize,
+                        @DefaultValue("10m") Duration slack) {}
+
+    /**
+     * @param sampledTiers channels in these tiers also get an intraday stat_sample row per refresh
+     * @param retention    how long samples are kept after being rolled up into daily_stat
+     */
+    @ConfigurationProperties("ingestion.sampling")
+    public record Sampling(@DefaultValue("HOURLY") Set<RefreshTier> sampledTiers,
+                           @DefaultValue("14d") Duration retention) {}
+
+    /**
+     * Metrics ranked after each daily snapshot. Absolute metrics are daily_stat columns
+     * ({@code subscribers}, {@code views}, {@code videos}, {@code followers}, {@code live_views});
+     * {@code growth_Nd} is the platform's headline counter gained over N days and
+     * {@code <column>_growth_Nd} the same for another column.
+     */
+    @ConfigurationProperties("ingestion.ranking")
+    public record Ranking(Map<Platform, List<String>> metrics) {
+
+        public List<String> metricsFor(Platform platform) {
+            List<String> configured = metrics != null ? metrics.get(platform) : null;
+            if (configured != null && !configured.isEmpty()) return configured;
+            return platform == Platform.YOUTUBE
+                    ? List.of("subscribers", "views", "videos", "growth_7d", "growth_30d")
+                    : List.of("followers", "growth_7d", "growth_30d");
+        }
+    }
+}
@@ -2,14 +2,26 @@ package quest.gekko.cys.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.context.annotation.Configuration;
 
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
 /**
  * Configuration properties for social media integrations
  */
 @Configuration
 @EnableConfigurationProperties({
         SocialProperties.YouTube.class,
+        SocialProperties.YouTubeQuota.class,
+        SocialProperties.YouTubeETagCache.class,
+        SocialProperties.Resolver.class,
+        SocialProperties.SearchCache.class,
+        SocialProperties.Outbound.class,
+        SocialProperties.Fixtures.class,
+        SocialProperties.Faults.class,
         SocialProperties.Twitch.class,
         SocialProperties.Security.class
 })
@@ -18,6 +30,107 @@ public class SocialProperties {
     @ConfigurationProperties("social.youtube")
     public record YouTube(String apiKey) {}
 
+    @ConfigurationProperties("social.youtube.quota")
+    public record YouTubeQuota(@DefaultValue("10000") long dailyUnits,
+                               @DefaultValue("0.5") double ingestionShare,
+                               @DefaultValue("0.3") double searchShare) {}
+
+    /**
+     * @param maxBytes total response bytes kept for conditional requests
+     * @param ttl      how long an ETag is reused before the resource is fetched in full again
+     */
+    @ConfigurationProperties("social.youtube.etag-cache")
+    public record YouTubeETagCache(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("33554432") long maxBytes,
+                                   @DefaultValue("6h") Duration ttl) {}
+
+    /**
+     * @param positiveTtl how long a resolved handle/URL keeps pointing at its channel
+     * @param negativeTtl how long an input that resolved to nothing is not retried
+     */
+    @ConfigurationProperties("social.resolver")
+    public record Resolver(@DefaultValue("7d") Duration positiveTtl,
+                           @DefaultValue("6h") Duration negativeTtl,
+                           @DefaultValue("50000") long maxEntries) {}
+
+    /**
+     * @param ttl how long a query's result list is reused before searching again
+     */
+    @ConfigurationProperties("social.search-cache")
+    public record SearchCache(@DefaultValue("6h") Duration ttl,
+                              @DefaultValue("5000") long maxEntries) {}
+
+    /**
+     * Outbound-call governor, one instance per upstream API.
+     *
+     * @param latencyTarget   calls slower than this shrink the concurrency limit a little
+     * @param maxQueued       callers allowed to wait for a permit before calls are rejected
+     * @param callTimeout     per-attempt timeout
+     * @param maxAttempts     attempts per call, including the first
+     * @param maxBackoff      longest wait between attempts; a longer Retry-After fails the call
+     * @param breakerWindow   recent calls the circuit breaker looks at
+     * @param breakerOpenFor  how long the breaker fails fast before letting a probe through
+     */
+    @ConfigurationProperties("social.outbound")
+    public record Outbound(@DefaultValue("8") int initialLimit,
+                           @DefaultValue("1") int minLimit,
+                           @DefaultValue("64") int maxLimit,
+                           @DefaultValue("2s") Duration latencyTarget,
+                           @DefaultValue("500") int maxQueued,
+                           @DefaultValue("10s") Duration callTimeout,
+                           @DefaultValue("3") int maxAttempts,
+                           @DefaultValue("250ms") Duration baseBackoff,
+                           @DefaultValue("30s") Duration maxBackoff,
+                           @DefaultValue("20") int breakerWindow,
+                           @DefaultValue("10") int breakerMinCalls,
+                           @DefaultValue("0.5") double breakerFailureRate,
+                           @DefaultValue("30s") Duration breakerOpenFor) {}
+
+    /**
+     * Record/replay of YouTube responses for offline load tests.
+     *
+     * @param mode              RECORD passes calls through and saves each 200; REPLAY never touches the network
+     * @param latency           synthetic latency added to every replayed response
+     * @param latencyJitter     replayed latency varies uniformly by up to this much either way
+     * @param syntheticChannels replayed search results are drawn from this many synthetic channel ids
+     */
+    @ConfigurationProperties("social.fixtures")
+    public record Fixtures(@DefaultValue("OFF") FixtureMode mode,
+                           @DefaultValue("fixtures") Path dir,
+                           @DefaultValue("80ms") Duration latency,
+                           @DefaultValue("40ms") Duration latencyJitter,
+                           @DefaultValue("1000000") long syntheticChannels) {}
+
+    public enum FixtureMode { OFF, RECORD, REPLAY }
+
+    /**
+     * Fault injection on outbound API calls, for checking backpressure under upstream failures.
+     *
+     * @param enabled arms the filter; without it rules are ignored and cannot be set at runtime
+     * @param rules   per endpoint (last path segment, e.g. {@code channels}, {@code search}, {@code users}) or {@code *}
+     */
+    @ConfigurationProperties("social.faults")
+    public record Faults(@DefaultValue("false") boolean enabled,
+                         Map<String, FaultRule> rules) {
+        public Faults {
+            rules = rules == null ? Map.of() : Map.copyOf(rules);
+        }
+    }
+
+    /**
+     * What to inject into calls to one endpoint. Rates are fractions of all calls and must sum to at most 1; latency
+     * is log-normal with the given median and 99th percentile (a fixed delay when p99 is not above it).
+     *
+     * @param errorRate calls answered with a 503
+     * @param quotaRate calls answered with a quota error (403 quotaExceeded on YouTube, 429 elsewhere)
+     * @param stallRate calls that never answer, like a hung connection
+     */
+    public record FaultRule(@DefaultValue("0ms") Duration latencyMedian,
+                            @DefaultValue("0ms") Duration latencyP99,
+                            @DefaultValue("0") double errorRate,
+                            @DefaultValue("0") double quotaRate,
+                            @DefaultValue("0") double stallRate) {}
+
     @ConfigurationProperties("social.twitch")
     public record Twitch(String clientId, String clientSecret) {}
 
@@ -4,13 +4,22 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.reactive.function.client.ExchangeStrategies;
 import org.springframework.web.reactive.function.client.WebClient;
+import quest.gekko.cys.service.integration.http.ETagCacheFilter;
+import quest.gekko.cys.service.integration.http.FaultInjectionFilter;
+import quest.gekko.cys.service.integration.http.RecordReplayFilter;
 
 @Configuration
 public class WebClientConfig {
 
     @Bean
-    WebClient webClient(final WebClient.Builder webClientBuilder) {
-        return webClientBuilder.exchangeStrategies(ExchangeStrategies.builder()
+    WebClient webClient(final WebClient.Builder webClientBuilder, final ETagCacheFilter eTagCacheFilter,
+                        final FaultInjectionFilter faultInjectionFilter, final RecordReplayFilter recordReplayFilter) {
+        // Filters run in registration order; record/replay must stay last, next to the network
+        return webClientBuilder
+                .filter(eTagCacheFilter)
+                .filter(faultInjectionFilter)
+                .filter(recordReplayFilter)
+                .exchangeStrategies(ExchangeStrategies.builder()
                         .codecs(c -> c.defaultCodecs().maxInMemorySize(8 * 1024 * 1024))
                         .build())
                 .build();
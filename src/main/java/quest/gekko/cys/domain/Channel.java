@@ -33,6 +33,12 @@ public class Channel {
     @Column(nullable = false)
     Instant createdAt =  Instant.now();
 
+    @Enumerated(EnumType.STRING) @Column(name = "refresh_tier", nullable = false)
+    RefreshTier refreshTier = RefreshTier.DAILY;
+
+    @Column(name = "next_refresh_at", nullable = false)
+    Instant nextRefreshAt = Instant.now();
+
     @Transient
     private Map<String, Long> counters = new HashMap<>();
 }
@@ -25,4 +25,9 @@ public class DailyStat {
     Long videos;
     Long followers;
     Long liveViews;
+
+    // Filled from intraday stat_sample rows for sampled channels, null otherwise
+    Long liveViewsMin;
+    Long liveViewsPeak;
+    Integer sampleCount;
 }
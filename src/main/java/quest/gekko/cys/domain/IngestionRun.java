@@ -0,0 +1,54 @@
+package quest.gekko.cys.domain;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "ingestion_run", uniqueConstraints = @UniqueConstraint(columnNames = { "run_key", "platform" }))
+@Getter @Setter
+public class IngestionRun {
+    // FAILED is only found on runs from before the task queue; those are simply resumed
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "run_key", nullable = false)
+    String runKey; // "daily:2025-08-14", "manual:<timestamp>"
+
+    @Enumerated(EnumType.STRING) @Column(nullable = false)
+    Platform platform;
+
+    @Column(name = "snapshot_date", nullable = false)
+    LocalDate snapshotDate;
+
+    @Enumerated(EnumType.STRING) @Column(nullable = false)
+    Status status = Status.RUNNING;
+
+    // Only channels due for refresh before this instant are read; null means every channel
+    Instant dueBefore;
+
+    // Set once the run's snapshot_task rows exist; workers on other nodes wait for it
+    Instant enqueuedAt;
+
+    @Column(name = "channels_read", nullable = false)
+    long channelsRead;
+
+    @Column(name = "channels_written", nullable = false)
+    long channelsWritten;
+
+    @Column(name = "failed_batches", nullable = false)
+    long failedBatches;
+
+    @Column(nullable = false)
+    Instant startedAt = Instant.now();
+
+    @Column(nullable = false)
+    Instant updatedAt = Instant.now();
+
+    Instant finishedAt;
+}
@@ -25,4 +25,7 @@ public class RankSnapshot {
     Channel channel;
 
     Integer rank;
+
+    // The metric's value the rank was computed from (the gain, for growth metrics)
+    Long value;
 }
@@ -0,0 +1,38 @@
+package quest.gekko.cys.domain;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A metric channels are ranked by: a daily_stat column, either as is ({@code windowDays == 0})
+ * or as its gain over the last {@code windowDays} days.
+ */
+public record RankingMetric(String name, String column, int windowDays) {
+    private static final Set<String> COLUMNS = Set.of("subscribers", "views", "videos", "followers", "live_views");
+    private static final Pattern GROWTH = Pattern.compile("(?:([a-z_]+)_)?growth_(\\d{1,3})d");
+
+    public boolean isGrowth() {
+        return windowDays > 0;
+    }
+
+    /** The counter a platform is ranked by first, and what a bare {@code growth_Nd} refers to. */
+    public static String headline(Platform platform) {
+        return platform == Platform.YOUTUBE ? "subscribers" : "followers";
+    }
+
+    /**
+     * @throws IllegalArgumentException for a name that is neither a known column nor a growth metric
+     */
+    public static RankingMetric parse(String name, Platform platform) {
+        if (COLUMNS.contains(name)) return new RankingMetric(name, name, 0);
+
+        Matcher m = GROWTH.matcher(name);
+        if (m.matches()) {
+            String column = m.group(1) != null ? m.group(1) : headline(platform);
+            int days = Integer.parseInt(m.group(2));
+            if (COLUMNS.contains(column) && days > 0) return new RankingMetric(name, column, days);
+        }
+        throw new IllegalArgumentException("Unknown ranking metric: " + name);
+    }
+}
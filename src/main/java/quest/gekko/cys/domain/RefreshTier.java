@@ -0,0 +1,20 @@
+package quest.gekko.cys.domain;
+
+import java.time.Duration;
+
+public enum RefreshTier {
+    HOURLY(Duration.ofHours(1)),
+    DAILY(Duration.ofDays(1)),
+    WEEKLY(Duration.ofDays(7)),
+    MONTHLY(Duration.ofDays(30));
+
+    private final Duration interval;
+
+    RefreshTier(Duration interval) {
+        this.interval = interval;
+    }
+
+    public Duration interval() {
+        return interval;
+    }
+}
@@ -1,21 +1,89 @@
 package quest.gekko.cys.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
 import quest.gekko.cys.web.dto.ChannelWithStatsDTO;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ChannelRepository extends JpaRepository<Channel, Long> {
     Optional<Channel> findByPlatformAndPlatformId(final Platform platform, final String platformId);
     Optional<Channel> findByPlatformAndHandleIgnoreCase(final Platform platform, final String handle);
+    List<Channel> findByPlatformAndPlatformIdIn(final Platform platform, final Collection<String> platformIds);
+
+    // Keyset pagination for bulk jobs: next chunk of a platform's channels in (afterId, upToId]
+    @Query("select c from Channel c where c.platform = :platform and c.id > :afterId and c.id <= :upToId order by c.id")
+    List<Channel> findChunkAfter(@Param("platform") final Platform platform, @Param("afterId") final long afterId,
+                                 @Param("upToId") final long upToId, final Limit limit);
+
+    @Query("""
+        select c from Channel c
+        where c.platform = :platform and c.id > :afterId and c.id <= :upToId and c.nextRefreshAt <= :dueBefore
+        order by c.id
+        """)
+    List<Channel> findDueChunkAfter(@Param("platform") final Platform platform, @Param("afterId") final long afterId,
+                                    @Param("upToId") final long upToId, @Param("dueBefore") final Instant dueBefore,
+                                    final Limit limit);
+
+    @Modifying
+    @Query("update Channel c set c.nextRefreshAt = :next where c.id in :ids")
+    int scheduleNextRefresh(@Param("ids") final Collection<Long> ids, @Param("next") final Instant next);
+
+    // Re-tier every channel with stats from its latest size and its daily growth rate over ~7 days
+    @Modifying
+    @Query(value = """
+        WITH latest AS (
+            SELECT DISTINCT ON (ds.channel_id)
+                   ds.channel_id, ds.snapshot_date,
+                   GREATEST(COALESCE(ds.subscribers, 0), COALESCE(ds.followers, 0)) AS size
+            FROM daily_stat ds
+            ORDER BY ds.channel_id, ds.snapshot_date DESC
+        ), past AS (
+            SELECT DISTINCT ON (ds.channel_id)
+                   ds.channel_id, ds.snapshot_date,
+                   GREATEST(COALESCE(ds.subscribers, 0), COALESCE(ds.followers, 0)) AS size
+            FROM daily_stat ds
+            WHERE ds.snapshot_date <= CURRENT_DATE - :growthWindowDays
+            ORDER BY ds.channel_id, ds.snapshot_date DESC
+        ), rated AS (
+            SELECT l.channel_id, l.size,
+                   CASE WHEN p.channel_id IS NULL THEN 0.0
+                        ELSE (l.size - p.size)::float8 / GREATEST(p.size, 1)
+                             / GREATEST(l.snapshot_date - p.snapshot_date, 1)
+                   END AS daily_growth
+            FROM latest l
+            LEFT JOIN past p ON p.channel_id = l.channel_id
+        ), tiers AS (
+            SELECT channel_id,
+                   CASE WHEN size >= :hourlyMinSize OR daily_growth >= :hourlyMinGrowth THEN 'HOURLY'
+                        WHEN size >= :dailyMinSize OR daily_growth >= :dailyMinGrowth THEN 'DAILY'
+                        WHEN size >= :weeklyMinSize OR daily_growth > 0 THEN 'WEEKLY'
+                        ELSE 'MONTHLY'
+                   END AS tier
+            FROM rated
+        )
+        UPDATE channel c
+        SET refresh_tier = t.tier
+        FROM tiers t
+        WHERE c.id = t.channel_id AND c.refresh_tier <> t.tier
+        """, nativeQuery = true)
+    int assignRefreshTiers(@Param("growthWindowDays") final int growthWindowDays,
+                           @Param("hourlyMinSize") final long hourlyMinSize,
+                           @Param("hourlyMinGrowth") final double hourlyMinGrowth,
+                           @Param("dailyMinSize") final long dailyMinSize,
+                           @Param("dailyMinGrowth") final double dailyMinGrowth,
+                           @Param("weeklyMinSize") final long weeklyMinSize);
 
     // Enhanced search method returning Object arrays for manual DTO mapping
     @Query(value = """
@@ -121,4 +189,38 @@ public interface ChannelRepository extends JpaRepository<Channel, Long> {
 
         return new PageImpl<>(pageContent, pageable, dtos.size());
     }
-}
\ No newline at end of file
+
+    /**
+     * One page of the latest stored ranking for a metric, in rank order. Only the page's rows are
+     * joined to their latest stats, so paging is done by the database rather than in memory.
+     */
+    @Query(value = """
+      SELECT c.id, c.platform, c.handle, c.title, c.avatar_url,
+             COALESCE(s.subscribers, 0), COALESCE(s.followers, 0), COALESCE(s.views, 0), COALESCE(s.videos, 0),
+             r.rank, r.value
+      FROM rank_snapshot r
+      JOIN channel c ON c.id = r.channel_id
+      LEFT JOIN LATERAL (
+          SELECT ds.subscribers, ds.followers, ds.views, ds.videos
+          FROM daily_stat ds
+          WHERE ds.channel_id = c.id
+          ORDER BY ds.snapshot_date DESC
+          LIMIT 1
+      ) s ON true
+      WHERE r.platform = :platform AND r.metric = :metric
+        AND r.snapshot_date = (SELECT max(snapshot_date) FROM rank_snapshot
+                               WHERE platform = :platform AND metric = :metric)
+      ORDER BY r.rank, r.channel_id
+      """, countQuery = """
+      SELECT count(*) FROM rank_snapshot r
+      WHERE r.platform = :platform AND r.metric = :metric
+        AND r.snapshot_date = (SELECT max(snapshot_date) FROM rank_snapshot
+                               WHERE platform = :platform AND metric = :metric)
+      """, nativeQuery = true)
+    Page<Object[]> rankedRaw(@Param("platform") final String platform, @Param("metric") final String metric,
+                             final Pageable pageable);
+
+    default Page<ChannelWithStatsDTO> ranked(String platform, String metric, Pageable pageable) {
+        return rankedRaw(platform, metric, pageable).map(ChannelWithStatsDTO::new);
+    }
+}
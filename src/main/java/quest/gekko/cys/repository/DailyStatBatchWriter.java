@@ -0,0 +1,55 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk writer for {@code daily_stat}. Rows are sent as JDBC batches of
+ * {@code INSERT ... ON CONFLICT (channel_id, snapshot_date) DO UPDATE}, so a same-day
+ * re-snapshot refreshes the counters and no read is needed before the write.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DailyStatBatchWriter {
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO daily_stat (channel_id, snapshot_date, subscribers, views, videos, followers, live_views)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (channel_id, snapshot_date) DO UPDATE SET
+            subscribers = EXCLUDED.subscribers,
+            views       = EXCLUDED.views,
+            videos      = EXCLUDED.videos,
+            followers   = EXCLUDED.followers,
+            live_views  = EXCLUDED.live_views
+        """;
+
+    public record Row(long channelId, LocalDate snapshotDate, Map<String, Long> counters) {}
+
+    /**
+     * @return number of rows written
+     */
+    public int upsert(List<Row> rows) {
+        if (rows.isEmpty()) return 0;
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            Map<String, Long> counters = row.counters();
+            ps.setLong(1, row.channelId());
+            ps.setDate(2, Date.valueOf(row.snapshotDate()));
+            ps.setLong(3, counters.getOrDefault("subscribers", 0L));
+            ps.setLong(4, counters.getOrDefault("views", 0L));
+            ps.setLong(5, counters.getOrDefault("videos", 0L));
+            ps.setLong(6, counters.getOrDefault("followers", 0L));
+            ps.setLong(7, counters.getOrDefault("liveViews", 0L));
+        });
+        return rows.size();
+    }
+}
@@ -0,0 +1,54 @@
+package quest.gekko.cys.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import quest.gekko.cys.domain.IngestionRun;
+import quest.gekko.cys.domain.Platform;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+public interface IngestionRunRepository extends JpaRepository<IngestionRun, Long> {
+    Optional<IngestionRun> findByRunKeyAndPlatform(final String runKey, final Platform platform);
+
+    List<IngestionRun> findByRunKeyOrderByPlatformAsc(final String runKey);
+
+    List<IngestionRun> findTop20ByOrderByStartedAtDesc();
+
+    List<IngestionRun> findByStatusNotAndSnapshotDateGreaterThanEqualOrderByStartedAtAsc(final IngestionRun.Status status, final LocalDate since);
+
+    List<IngestionRun> findByStatusOrderByStartedAtAsc(final IngestionRun.Status status);
+
+    // Serialises task enqueueing when several nodes start the same run
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select r from IngestionRun r where r.id = :id")
+    Optional<IngestionRun> findByIdForUpdate(@Param("id") final Long id);
+
+    @Modifying
+    @Query("""
+        update IngestionRun r
+        set r.channelsRead = r.channelsRead + :read,
+            r.channelsWritten = r.channelsWritten + :written,
+            r.failedBatches = r.failedBatches + :failed,
+            r.updatedAt = :now
+        where r.id = :id
+        """)
+    int addProgress(@Param("id") final Long id, @Param("read") final long read, @Param("written") final long written,
+                    @Param("failed") final long failed, @Param("now") final Instant now);
+
+    // Only one node wins the transition, so only one node runs the post-run steps
+    @Modifying
+    @Query("""
+        update IngestionRun r
+        set r.status = :completed, r.finishedAt = :now, r.updatedAt = :now
+        where r.id = :id and r.status <> :completed
+        """)
+    int markCompleted(@Param("id") final Long id, @Param("completed") final IngestionRun.Status completed,
+                      @Param("now") final Instant now);
+}
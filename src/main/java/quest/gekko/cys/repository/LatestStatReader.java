@@ -0,0 +1,57 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import quest.gekko.cys.domain.Platform;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Streams each channel's latest {@code daily_stat} counters for a platform. Rows are fetched
+ * through a server-side cursor in pages, so a full platform never sits in memory at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class LatestStatReader {
+    private static final int FETCH_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Counters in daily_stat column order; missing values read as 0. */
+    public record Latest(long channelId, LocalDate snapshotDate, long subscribers, long views, long videos,
+                         long followers, long liveViews) {}
+
+    private static final String LATEST_SQL = """
+        SELECT c.id, s.snapshot_date, COALESCE(s.subscribers, 0), COALESCE(s.views, 0), COALESCE(s.videos, 0),
+               COALESCE(s.followers, 0), COALESCE(s.live_views, 0)
+        FROM channel c
+        CROSS JOIN LATERAL (
+            SELECT ds.snapshot_date, ds.subscribers, ds.views, ds.videos, ds.followers, ds.live_views
+            FROM daily_stat ds
+            WHERE ds.channel_id = c.id
+            ORDER BY ds.snapshot_date DESC
+            LIMIT 1
+        ) s
+        WHERE c.platform = ?
+        """;
+
+    // The Postgres driver only uses a cursor inside a transaction
+    @Transactional(readOnly = true)
+    public long forEachLatest(Platform platform, Consumer<Latest> handler) {
+        long[] count = {0};
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(LATEST_SQL);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setString(1, platform.name());
+            return ps;
+        }, rs -> {
+            handler.accept(new Latest(rs.getLong(1), rs.getObject(2, LocalDate.class), rs.getLong(3), rs.getLong(4),
+                    rs.getLong(5), rs.getLong(6), rs.getLong(7)));
+            count[0]++;
+        });
+        return count[0];
+    }
+}
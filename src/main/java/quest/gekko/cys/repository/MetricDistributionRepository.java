@@ -0,0 +1,64 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import quest.gekko.cys.domain.Platform;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily {@code metric_distribution} sketches, and the {@code rank_snapshot} values they are built from.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetricDistributionRepository {
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Stored(LocalDate snapshotDate, String metric, long sampleCount, byte[] sketch) {}
+
+    @FunctionalInterface
+    public interface ValueHandler {
+        void accept(String metric, long value);
+    }
+
+    /** Stream every ranked value of the day through a cursor. */
+    @Transactional(readOnly = true)
+    public void forEachRankValue(LocalDate date, Platform platform, ValueHandler handler) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(
+                    "SELECT metric, value FROM rank_snapshot WHERE snapshot_date = ? AND platform = ? AND value IS NOT NULL");
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setDate(1, Date.valueOf(date));
+            ps.setString(2, platform.name());
+            return ps;
+        }, rs -> {
+            handler.accept(rs.getString(1), rs.getLong(2));
+        });
+    }
+
+    public void upsert(LocalDate date, Platform platform, String metric, long sampleCount, byte[] sketch) {
+        jdbcTemplate.update("""
+            INSERT INTO metric_distribution (snapshot_date, platform, metric, sample_count, sketch)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (snapshot_date, platform, metric) DO UPDATE
+            SET sample_count = EXCLUDED.sample_count, sketch = EXCLUDED.sketch
+            """, Date.valueOf(date), platform.name(), metric, sampleCount, sketch);
+    }
+
+    /** The most recent sketch of each metric of the platform. */
+    public List<Stored> latest(Platform platform) {
+        return jdbcTemplate.query("""
+            SELECT DISTINCT ON (metric) snapshot_date, metric, sample_count, sketch
+            FROM metric_distribution
+            WHERE platform = ?
+            ORDER BY metric, snapshot_date DESC
+            """, (rs, i) -> new Stored(rs.getDate(1).toLocalDate(), rs.getString(2), rs.getLong(3), rs.getBytes(4)),
+                platform.name());
+    }
+}
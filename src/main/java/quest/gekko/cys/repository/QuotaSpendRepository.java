@@ -0,0 +1,61 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * API quota spent per day and consumer in {@code quota_spend}, so every node charges the same
+ * project-wide budget and a restart keeps what was spent earlier in the day. A charge locks all
+ * of the day's rows, so concurrent charges from any node are checked one after another.
+ */
+@Repository
+@RequiredArgsConstructor
+public class QuotaSpendRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Create the day's zero rows for every consumer, so a charge can lock all of them. Idempotent. */
+    public void openDay(LocalDate quotaDay, Collection<String> consumers) {
+        jdbcTemplate.update("""
+            INSERT INTO quota_spend (quota_day, consumer, units)
+            SELECT ?, c, 0 FROM unnest(CAST(? AS text[])) AS c
+            ON CONFLICT (quota_day, consumer) DO NOTHING
+            """, quotaDay, consumers.toArray(String[]::new));
+    }
+
+    public Map<String, Long> spent(LocalDate quotaDay) {
+        Map<String, Long> spent = new HashMap<>();
+        jdbcTemplate.query("SELECT consumer, units FROM quota_spend WHERE quota_day = ?",
+                rs -> { spent.put(rs.getString(1), rs.getLong(2)); }, quotaDay);
+        return spent;
+    }
+
+    /**
+     * Add {@code units} to the consumer's spend if {@code allowed} accepts the day's spend as it
+     * stands with every row locked. Commits on its own, since the call it pays for happens either way.
+     *
+     * @return false if the charge was refused
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean charge(LocalDate quotaDay, String consumer, long units, Predicate<Map<String, Long>> allowed) {
+        Map<String, Long> spent = new HashMap<>();
+        // Consistent lock order, so two charges never wait on each other's rows
+        jdbcTemplate.query("SELECT consumer, units FROM quota_spend WHERE quota_day = ? ORDER BY consumer FOR UPDATE",
+                rs -> { spent.put(rs.getString(1), rs.getLong(2)); }, quotaDay);
+        if (!allowed.test(spent)) return false;
+
+        jdbcTemplate.update("""
+            INSERT INTO quota_spend (quota_day, consumer, units) VALUES (?, ?, ?)
+            ON CONFLICT (quota_day, consumer) DO UPDATE SET units = quota_spend.units + EXCLUDED.units
+            """, quotaDay, consumer, units);
+        return true;
+    }
+}
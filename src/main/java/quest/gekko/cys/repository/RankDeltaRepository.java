@@ -0,0 +1,86 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import quest.gekko.cys.domain.Platform;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * {@code rank_delta}: each channel's rank against its rank 1, 7 and 30 days earlier, derived from
+ * {@code rank_snapshot} in one statement so the movers lists are plain index range scans.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RankDeltaRepository {
+    /** Look-back windows in days; each has rank_Nd and delta_Nd columns. */
+    public static final List<Integer> WINDOWS = List.of(1, 7, 30);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Mover(long channelId, String title, String handle, String avatarUrl,
+                        int rank, int previousRank, int delta) {}
+
+    /**
+     * Replace the platform's deltas for {@code date} from the rankings already written for it.
+     * Channels unranked N days earlier get no rank_Nd and stay out of that window's movers.
+     *
+     * @return number of rows written
+     */
+    public int replace(LocalDate date, Platform platform) {
+        Date day = Date.valueOf(date);
+        jdbcTemplate.update("DELETE FROM rank_delta WHERE platform = ? AND snapshot_date = ?", platform.name(), day);
+
+        String previousRanks = WINDOWS.stream().map(w -> "d" + w + ".rank").collect(Collectors.joining(", "));
+        String deltas = WINDOWS.stream().map(w -> "d" + w + ".rank - t.rank").collect(Collectors.joining(", "));
+        String joins = WINDOWS.stream().map(w -> """
+            LEFT JOIN rank_snapshot d%1$d ON d%1$d.snapshot_date = t.snapshot_date - %1$d
+                AND d%1$d.platform = t.platform AND d%1$d.metric = t.metric AND d%1$d.channel_id = t.channel_id
+            """.formatted(w)).collect(Collectors.joining());
+
+        return jdbcTemplate.update("""
+            INSERT INTO rank_delta (platform, metric, snapshot_date, channel_id, rank, %s, %s)
+            SELECT t.platform, t.metric, t.snapshot_date, t.channel_id, t.rank, %s, %s
+            FROM rank_snapshot t
+            %s
+            WHERE t.snapshot_date = ? AND t.platform = ?
+            """.formatted(columns("rank_"), columns("delta_"), previousRanks, deltas, joins), day, platform.name());
+    }
+
+    /** Most recent day with deltas for the metric. */
+    public Optional<LocalDate> latestDate(Platform platform, String metric) {
+        Date latest = jdbcTemplate.queryForObject(
+                "SELECT max(snapshot_date) FROM rank_delta WHERE platform = ? AND metric = ?",
+                Date.class, platform.name(), metric);
+        return Optional.ofNullable(latest).map(Date::toLocalDate);
+    }
+
+    /**
+     * Channels that climbed ({@code gainers}) or dropped the most over {@code windowDays}, biggest
+     * move first.
+     */
+    public List<Mover> movers(Platform platform, String metric, LocalDate date, int windowDays, boolean gainers, int limit) {
+        if (!WINDOWS.contains(windowDays)) throw new IllegalArgumentException("Unsupported window " + windowDays);
+        String delta = "d.delta_" + windowDays + "d";
+        return jdbcTemplate.query("""
+            SELECT d.channel_id, c.title, c.handle, c.avatar_url, d.rank, d.rank_%1$dd, %2$s
+            FROM rank_delta d
+            JOIN channel c ON c.id = d.channel_id
+            WHERE d.platform = ? AND d.metric = ? AND d.snapshot_date = ? AND %2$s %3$s 0
+            ORDER BY %2$s %4$s
+            LIMIT ?
+            """.formatted(windowDays, delta, gainers ? ">" : "<", gainers ? "DESC" : "ASC"),
+                (rs, i) -> new Mover(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4),
+                        rs.getInt(5), rs.getInt(6), rs.getInt(7)),
+                platform.name(), metric, Date.valueOf(date), limit);
+    }
+
+    private static String columns(String prefix) {
+        return WINDOWS.stream().map(w -> prefix + w + "d").collect(Collectors.joining(", "));
+    }
+}
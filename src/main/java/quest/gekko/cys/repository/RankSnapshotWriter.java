@@ -0,0 +1,87 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Writes a day's rankings for several metrics in one statement. Each channel is visited once:
+ * its latest {@code daily_stat} on or before the day, plus the latest one on or before each
+ * growth window's start, are fetched by index probes on {@code (channel_id, snapshot_date)}.
+ * A {@code LATERAL VALUES} list then turns that row into one value per metric, and
+ * {@code RANK()} per metric ranks them. Nothing is read into the JVM.
+ * <p>
+ * Channels without a stat as old as a window's start are left out of that growth ranking.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RankSnapshotWriter {
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String STAT_COLUMNS = "subscribers, views, videos, followers, live_views";
+
+    /**
+     * Replace the rankings of {@code platform} by {@code metrics} for {@code date}. Run inside a
+     * transaction so readers see either the old rankings or the new ones.
+     *
+     * @return number of rank rows written, across all metrics
+     */
+    public int replace(LocalDate date, Platform platform, List<RankingMetric> metrics) {
+        if (metrics.isEmpty()) return 0;
+        Date day = Date.valueOf(date);
+
+        List<Object> deleteArgs = new ArrayList<>(List.of(day, platform.name()));
+        metrics.forEach(metric -> deleteArgs.add(metric.name()));
+        jdbcTemplate.update("DELETE FROM rank_snapshot WHERE snapshot_date = ? AND platform = ? AND metric IN ("
+                + String.join(", ", Collections.nCopies(metrics.size(), "?")) + ")", deleteArgs.toArray());
+
+        SortedSet<Integer> windows = metrics.stream()
+                .filter(RankingMetric::isGrowth)
+                .map(RankingMetric::windowDays)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        List<Object> args = new ArrayList<>(List.of(day, day));
+        StringBuilder sql = new StringBuilder("""
+            INSERT INTO rank_snapshot (snapshot_date, platform, metric, channel_id, rank, value)
+            SELECT ?, c.platform, m.metric, c.id, RANK() OVER (PARTITION BY m.metric ORDER BY m.val DESC), m.val
+            FROM channel c
+            CROSS JOIN LATERAL (%s) cur
+            """.formatted(latestStatOnOrBefore("?")));
+        for (int window : windows) {
+            // Column and window come from RankingMetric.parse, never from raw input
+            sql.append("LEFT JOIN LATERAL (").append(latestStatOnOrBefore("CAST(? AS date) - " + window))
+                    .append(") b").append(window).append(" ON true\n");
+            args.add(day);
+        }
+        sql.append("CROSS JOIN LATERAL (VALUES ")
+                .append(metrics.stream().map(RankSnapshotWriter::valueRow).collect(Collectors.joining(", ")))
+                .append(") AS m(metric, val)\n")
+                .append("WHERE c.platform = ? AND m.val IS NOT NULL");
+        args.add(platform.name());
+
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private static String latestStatOnOrBefore(String day) {
+        return "SELECT " + STAT_COLUMNS + " FROM daily_stat ds WHERE ds.channel_id = c.id AND ds.snapshot_date <= "
+                + day + " ORDER BY ds.snapshot_date DESC LIMIT 1";
+    }
+
+    private static String valueRow(RankingMetric metric) {
+        String value = metric.isGrowth()
+                ? "cur." + metric.column() + " - b" + metric.windowDays() + "." + metric.column()
+                : "COALESCE(cur." + metric.column() + ", 0)";
+        return "('" + metric.name() + "', " + value + ")";
+    }
+}
@@ -0,0 +1,67 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * TTL locks in {@code scheduler_lock} and the {@code scheduled_job_run} history. Lock times are
+ * taken from the database clock, so skew between nodes cannot let two of them hold a lock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SchedulerLockRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public record JobRun(String jobName, String node, Instant startedAt, long durationMs, String outcome, String error) {}
+
+    // Insert the lock, or take it over only once the previous holder's TTL has passed
+    private static final String LOCK_SQL = """
+        INSERT INTO scheduler_lock (name, locked_until, locked_at, locked_by)
+        VALUES (?, now() + CAST(? AS interval), now(), ?)
+        ON CONFLICT (name) DO UPDATE
+        SET locked_until = EXCLUDED.locked_until, locked_at = EXCLUDED.locked_at, locked_by = EXCLUDED.locked_by
+        WHERE scheduler_lock.locked_until <= now()
+        """;
+
+    public boolean tryLock(String name, Duration lockAtMostFor, String node) {
+        return jdbcTemplate.update(LOCK_SQL, name, interval(lockAtMostFor), node) == 1;
+    }
+
+    /**
+     * Release the lock, but keep it until {@code lockAtLeastFor} after it was taken so a job
+     * that finishes quickly is not picked up again by a node whose firing comes a little later.
+     */
+    public void unlock(String name, Duration lockAtLeastFor, String node) {
+        jdbcTemplate.update("""
+            UPDATE scheduler_lock
+            SET locked_until = GREATEST(now(), locked_at + CAST(? AS interval))
+            WHERE name = ? AND locked_by = ?
+            """, interval(lockAtLeastFor), name, node);
+    }
+
+    public void recordRun(JobRun run) {
+        jdbcTemplate.update("""
+            INSERT INTO scheduled_job_run (job_name, node, started_at, finished_at, duration_ms, outcome, error)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """, run.jobName(), run.node(), Timestamp.from(run.startedAt()),
+                Timestamp.from(run.startedAt().plusMillis(run.durationMs())), run.durationMs(), run.outcome(), run.error());
+    }
+
+    public List<JobRun> findRecentRuns(int limit) {
+        return jdbcTemplate.query("""
+            SELECT job_name, node, started_at, duration_ms, outcome, error
+            FROM scheduled_job_run ORDER BY started_at DESC LIMIT ?
+            """, (rs, i) -> new JobRun(rs.getString(1), rs.getString(2), rs.getTimestamp(3).toInstant(),
+                rs.getLong(4), rs.getString(5), rs.getString(6)), limit);
+    }
+
+    private static String interval(Duration duration) {
+        return duration.toMillis() + " milliseconds";
+    }
+}
@@ -0,0 +1,89 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Postgres-backed work queue in {@code snapshot_task}. Tasks are enqueued once per run and
+ * claimed in batches with {@code FOR UPDATE SKIP LOCKED}, so concurrent workers on any number of
+ * nodes never claim the same task; a worker that dies simply lets its lease expire.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SnapshotTaskRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public record Task(long id, long runId, long firstChannelId, long lastChannelId) {}
+
+    // Split the run's channels into id ranges of taskSize channels each
+    private static final String ENQUEUE_SQL = """
+        INSERT INTO snapshot_task (run_id, first_channel_id, last_channel_id)
+        SELECT ?, MIN(b.id), MAX(b.id)
+        FROM (
+            SELECT c.id, (ROW_NUMBER() OVER (ORDER BY c.id) - 1) / ? AS bucket
+            FROM channel c
+            WHERE c.platform = ? AND (CAST(? AS timestamp) IS NULL OR c.next_refresh_at <= ?)
+        ) b
+        GROUP BY b.bucket
+        ON CONFLICT (run_id, first_channel_id) DO NOTHING
+        """;
+
+    private static final String CLAIM_SQL = """
+        UPDATE snapshot_task t
+        SET status = 'LEASED', lease_owner = ?, lease_expires_at = now() + CAST(? AS interval), attempts = t.attempts + 1
+        WHERE t.id IN (
+            SELECT q.id FROM snapshot_task q
+            WHERE q.run_id = ?
+              AND (q.status = 'PENDING' OR (q.status = 'LEASED' AND q.lease_expires_at < now()))
+            ORDER BY q.id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING t.id, t.run_id, t.first_channel_id, t.last_channel_id
+        """;
+
+    public int enqueue(long runId, String platform, Instant dueBefore, int taskSize) {
+        // next_refresh_at is a UTC timestamp without zone; bind the cutoff the same way, not in the JVM zone
+        LocalDateTime due = dueBefore != null ? LocalDateTime.ofInstant(dueBefore, ZoneOffset.UTC) : null;
+        return jdbcTemplate.update(ENQUEUE_SQL, runId, taskSize, platform, due, due);
+    }
+
+    public List<Task> claim(long runId, String owner, int limit, Duration lease) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, i) -> new Task(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)),
+                owner, lease.toSeconds() + " seconds", runId, limit);
+    }
+
+    /**
+     * Mark the task done if {@code owner} still holds its lease, or the lease has expired without
+     * anyone else finishing the task.
+     *
+     * @return false if the task was already done or its lease had passed to another worker
+     */
+    public boolean markDone(long taskId, String owner) {
+        return jdbcTemplate.update("""
+            UPDATE snapshot_task SET status = 'DONE', finished_at = now(), lease_owner = ?
+            WHERE id = ? AND status <> 'DONE' AND (lease_owner = ? OR lease_expires_at < now())
+            """, owner, taskId, owner) == 1;
+    }
+
+    public void release(long taskId, String owner) {
+        jdbcTemplate.update("""
+            UPDATE snapshot_task SET status = 'PENDING', lease_owner = NULL, lease_expires_at = NULL
+            WHERE id = ? AND status = 'LEASED' AND lease_owner = ?
+            """, taskId, owner);
+    }
+
+    public long countOpen(long runId) {
+        Long open = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM snapshot_task WHERE run_id = ? AND status <> 'DONE'", Long.class, runId);
+        return open != null ? open : 0;
+    }
+}
@@ -0,0 +1,85 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Append-only intraday samples in {@code stat_sample}, plus the rollup that folds them into
+ * {@code daily_stat} so leaderboard queries never have to scan samples.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StatSampleRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO stat_sample (channel_id, sampled_at, subscribers, views, videos, followers, live_views)
+        VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    // Last value of every counter per (channel, UTC day), plus live_views extremes and sample count
+    private static final String ROLLUP_SQL = """
+        INSERT INTO daily_stat (channel_id, snapshot_date, subscribers, views, videos, followers, live_views,
+                                live_views_min, live_views_peak, sample_count)
+        SELECT s.channel_id,
+               (s.sampled_at AT TIME ZONE 'UTC')::date,
+               (array_agg(s.subscribers ORDER BY s.sampled_at DESC))[1],
+               (array_agg(s.views       ORDER BY s.sampled_at DESC))[1],
+               (array_agg(s.videos      ORDER BY s.sampled_at DESC))[1],
+               (array_agg(s.followers   ORDER BY s.sampled_at DESC))[1],
+               (array_agg(s.live_views  ORDER BY s.sampled_at DESC))[1],
+               MIN(s.live_views),
+               MAX(s.live_views),
+               COUNT(*)
+        FROM stat_sample s
+        WHERE s.sampled_at >= ?
+        GROUP BY s.channel_id, (s.sampled_at AT TIME ZONE 'UTC')::date
+        ON CONFLICT (channel_id, snapshot_date) DO UPDATE SET
+            subscribers     = EXCLUDED.subscribers,
+            views           = EXCLUDED.views,
+            videos          = EXCLUDED.videos,
+            followers       = EXCLUDED.followers,
+            live_views      = EXCLUDED.live_views,
+            live_views_min  = EXCLUDED.live_views_min,
+            live_views_peak = EXCLUDED.live_views_peak,
+            sample_count    = EXCLUDED.sample_count
+        """;
+
+    public void append(List<DailyStatBatchWriter.Row> rows, Instant sampledAt) {
+        if (rows.isEmpty()) return;
+
+        OffsetDateTime at = sampledAt.atOffset(ZoneOffset.UTC);
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, BATCH_SIZE, (ps, row) -> {
+            var counters = row.counters();
+            ps.setLong(1, row.channelId());
+            ps.setObject(2, at);
+            ps.setLong(3, counters.getOrDefault("subscribers", 0L));
+            ps.setLong(4, counters.getOrDefault("views", 0L));
+            ps.setLong(5, counters.getOrDefault("videos", 0L));
+            ps.setLong(6, counters.getOrDefault("followers", 0L));
+            ps.setLong(7, counters.getOrDefault("liveViews", 0L));
+        });
+    }
+
+    /**
+     * Recompute the daily rows of every (channel, day) that has samples at or after {@code since}.
+     * Pass the start of a UTC day so partial days are never rolled up from a truncated window.
+     *
+     * @return number of daily_stat rows written
+     */
+    public int rollupSince(Instant since) {
+        return jdbcTemplate.update(ROLLUP_SQL, since.atOffset(ZoneOffset.UTC));
+    }
+
+    public int deleteOlderThan(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM stat_sample WHERE sampled_at < ?", cutoff.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,47 @@
+package quest.gekko.cys.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Bulk-inserts synthetic YouTube channels for replay-mode load tests. Rows are generated inside
+ * Postgres with {@code generate_series}, so a million channels is a handful of statements rather
+ * than a million round trips. Ids follow {@code prefix + n} zero-padded to 24 characters, the same
+ * ids the replayed API answers for.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SyntheticChannelRepository {
+    private static final int SLICE = 100_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_SQL = """
+        INSERT INTO channel (platform, platform_id, handle, title)
+        SELECT 'YOUTUBE', ? || lpad(g::text, 17, '0'), '@synth' || g, 'Synthetic channel ' || g
+        FROM generate_series(CAST(? AS bigint), CAST(? AS bigint)) AS g
+        ON CONFLICT (platform, platform_id) DO NOTHING
+        """;
+
+    /**
+     * Make sure synthetic channels 1..{@code count} exist. Idempotent: channels already present are
+     * left alone, so growing the set only inserts the new tail.
+     *
+     * @return number of channels inserted
+     */
+    public long ensure(String idPrefix, long count) {
+        long inserted = 0;
+        for (long from = 1; from <= count; from += SLICE) {
+            inserted += jdbcTemplate.update(INSERT_SQL, idPrefix, from, Math.min(count, from + SLICE - 1));
+        }
+        return inserted;
+    }
+
+    public long count(String idPrefix) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM channel WHERE platform = 'YOUTUBE' AND platform_id LIKE ? || '%'",
+                Long.class, idPrefix);
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,128 @@
+package quest.gekko.cys.service.core;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.ChannelRepository;
+import quest.gekko.cys.service.integration.connector.PlatformConnector;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves a handle, channel URL or vanity name to a channel while spending as little API quota
+ * as possible. Inputs are normalised first, so {@code @MKBHD}, {@code youtube.com/@mkbhd/videos}
+ * and {@code @mkbhd} are one key. Lookups go, in order, to the local {@code channel} table, a
+ * cache of earlier resolutions, a TTL-bounded cache of inputs that resolved to nothing, and only
+ * then to the connector.
+ * <p>
+ * Use the connector directly when the point is to re-fetch a channel's current data.
+ */
+@Service
+@Slf4j
+public class ChannelResolver {
+    private static final Pattern CHANNEL_ID_PATH = Pattern.compile("/channel/([A-Za-z0-9_-]+)");
+    private static final Pattern HANDLE_PATH = Pattern.compile("/@([A-Za-z0-9._-]+)");
+    private static final Pattern VANITY_PATH = Pattern.compile("/(?:c|user)/([A-Za-z0-9._-]+)");
+    private static final Pattern TWITCH_LOGIN_PATH = Pattern.compile("twitch\\.tv/([A-Za-z0-9_]+)");
+    private static final Pattern BARE_CHANNEL_ID = Pattern.compile("UC[A-Za-z0-9_-]{22}");
+
+    private final ChannelRepository channelRepository;
+    private final Map<Platform, PlatformConnector> connectorsByPlatform;
+    private final MeterRegistry meterRegistry;
+    // normalised input -> channel as last hydrated (detached; the DB copy wins when present)
+    private final Cache<String, Channel> resolved;
+    // normalised input -> nothing found
+    private final Cache<String, Boolean> unresolvable;
+
+    public ChannelResolver(ChannelRepository channelRepository, Map<Platform, PlatformConnector> connectorsByPlatform,
+                           SocialProperties.Resolver props, MeterRegistry meterRegistry) {
+        this.channelRepository = channelRepository;
+        this.connectorsByPlatform = connectorsByPlatform;
+        this.meterRegistry = meterRegistry;
+        this.resolved = Caffeine.newBuilder().maximumSize(props.maxEntries()).expireAfterWrite(props.positiveTtl()).build();
+        this.unresolvable = Caffeine.newBuilder().maximumSize(props.maxEntries()).expireAfterWrite(props.negativeTtl()).build();
+    }
+
+    /** What the input names, once URL noise and case are stripped; channel ids keep their case. */
+    public record Key(Kind kind, String value) {
+        public enum Kind { ID, HANDLE, VANITY, TEXT }
+
+        public String cacheKey(Platform platform) {
+            return platform + ":" + kind + ":" + value;
+        }
+    }
+
+    public Optional<Channel> resolve(Platform platform, String handleOrUrl) {
+        if (handleOrUrl == null || handleOrUrl.isBlank()) return Optional.empty();
+        PlatformConnector connector = connectorsByPlatform.get(platform);
+        if (connector == null) return Optional.empty();
+
+        Key key = normalize(handleOrUrl);
+        String cacheKey = key.cacheKey(platform);
+
+        Optional<Channel> local = findLocal(platform, key);
+        if (local.isPresent()) return hit("db", local);
+
+        Channel cached = resolved.getIfPresent(cacheKey);
+        if (cached != null) {
+            // Prefer the stored row if the earlier result has been saved since
+            return hit("cache", Optional.of(channelRepository.findByPlatformAndPlatformId(platform, cached.getPlatformId())
+                    .orElse(cached)));
+        }
+        if (unresolvable.getIfPresent(cacheKey) != null) return hit("negative", Optional.empty());
+
+        Optional<Channel> fetched = connector.resolveAndHydrate(handleOrUrl.trim());
+        if (fetched.isPresent() && fetched.get().getPlatformId() != null) {
+            resolved.put(cacheKey, fetched.get());
+            meterRegistry.counter("channel.resolve", "source", "api").increment();
+        } else {
+            unresolvable.put(cacheKey, Boolean.TRUE);
+            meterRegistry.counter("channel.resolve", "source", "api-miss").increment();
+        }
+        return fetched;
+    }
+
+    public static Key normalize(String input) {
+        String s = input.trim();
+
+        Matcher twitch = TWITCH_LOGIN_PATH.matcher(s);
+        if (twitch.find()) return new Key(Key.Kind.HANDLE, "@" + twitch.group(1).toLowerCase(Locale.ROOT));
+
+        if (s.contains("youtube.com/") || s.contains("youtu.be/") || s.startsWith("http")) {
+            Matcher m = CHANNEL_ID_PATH.matcher(s);
+            if (m.find()) return new Key(Key.Kind.ID, m.group(1));
+            m = HANDLE_PATH.matcher(s);
+            if (m.find()) return new Key(Key.Kind.HANDLE, "@" + m.group(1).toLowerCase(Locale.ROOT));
+            m = VANITY_PATH.matcher(s);
+            if (m.find()) return new Key(Key.Kind.VANITY, m.group(1).toLowerCase(Locale.ROOT));
+        }
+        if (s.startsWith("@") && s.indexOf(' ') < 0) return new Key(Key.Kind.HANDLE, s.toLowerCase(Locale.ROOT));
+        if (BARE_CHANNEL_ID.matcher(s).matches()) return new Key(Key.Kind.ID, s);
+
+        return new Key(Key.Kind.TEXT, s.toLowerCase(Locale.ROOT).replaceAll("\\s+", " "));
+    }
+
+    private Optional<Channel> findLocal(Platform platform, Key key) {
+        return switch (key.kind()) {
+            case ID -> channelRepository.findByPlatformAndPlatformId(platform, key.value());
+            case HANDLE -> channelRepository.findByPlatformAndHandleIgnoreCase(platform, key.value());
+            // Legacy vanity names usually match the channel's handle
+            case VANITY -> channelRepository.findByPlatformAndHandleIgnoreCase(platform, "@" + key.value());
+            case TEXT -> Optional.empty();
+        };
+    }
+
+    private Optional<Channel> hit(String source, Optional<Channel> result) {
+        meterRegistry.counter("channel.resolve", "source", source).increment();
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package quest.gekko.cys.service.core;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
+import quest.gekko.cys.repository.MetricDistributionRepository;
+import quest.gekko.cys.util.LogHistogram;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-platform distributions of every ranking metric, for percentile badges and distribution
+ * charts. Each day's are built from the values just written to {@code rank_snapshot}, stored in
+ * {@code metric_distribution}, and served from memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistributionService {
+    private final MetricDistributionRepository distributionRepo;
+    private final RankingService rankingService;
+
+    private record Key(Platform platform, String metric) {}
+
+    /** A sealed histogram and the day it describes. */
+    public record Distribution(LocalDate snapshotDate, LogHistogram histogram) {}
+
+    private final Map<Key, Distribution> current = new ConcurrentHashMap<>();
+
+    /** Build the day's distributions from its rankings; run after {@link RankingService#computeDailyRanks}. */
+    public void build(LocalDate date, Platform platform) {
+        long started = System.nanoTime();
+        Map<String, LogHistogram> histograms = new HashMap<>();
+        for (RankingMetric metric : rankingService.metricsFor(platform)) {
+            histograms.put(metric.name(), new LogHistogram());
+        }
+        distributionRepo.forEachRankValue(date, platform, (metric, value) -> {
+            LogHistogram h = histograms.get(metric);
+            if (h != null) h.add(value);
+        });
+
+        histograms.forEach((metric, h) -> {
+            if (h.count() == 0) return;
+            distributionRepo.upsert(date, platform, metric, h.count(), h.seal().toBytes());
+            current.put(new Key(platform, metric), new Distribution(date, h));
+        });
+        log.info("Built {} distributions for {} on {} in {} ms", platform, histograms.keySet(), date,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Load the latest stored distributions, e.g. after a restart. */
+    public void load(Platform platform) {
+        for (MetricDistributionRepository.Stored stored : distributionRepo.latest(platform)) {
+            current.put(new Key(platform, stored.metric()),
+                    new Distribution(stored.snapshotDate(), LogHistogram.fromBytes(stored.sketch())));
+        }
+    }
+
+    public Optional<Distribution> distribution(Platform platform, String metric) {
+        return Optional.ofNullable(current.get(new Key(platform, metric)));
+    }
+
+    /** Share of channels ranked above {@code value}, 0–100; "top 0.1%" is 0.1. */
+    public Optional<Double> topPercent(Platform platform, String metric, long value) {
+        return distribution(platform, metric).map(d -> 100 - d.histogram().percentileOf(value));
+    }
+}
@@ -0,0 +1,206 @@
+package quest.gekko.cys.service.core;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+import quest.gekko.cys.repository.LatestStatReader;
+import quest.gekko.cys.util.LongLongMap;
+import quest.gekko.cys.util.OrderStatisticTree;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Live rankings held in memory: one {@link OrderStatisticTree} per platform and absolute ranking
+ * metric, built from every channel's latest stat and kept current by {@link StatsWrittenEvent}s.
+ * Rank-of, top-k and neighbours are O(log n) under a read lock. Growth metrics need the stats
+ * from N days back and stay with the daily {@code rank_snapshot}.
+ * <p>
+ * Writes committed while a platform is being rebuilt are queued and replayed onto the new trees
+ * before they replace the old ones. Each channel's snapshot date is kept alongside, so a row
+ * older than the one a channel already shows (a resumed run for yesterday finishing after
+ * today's refresh) is ignored.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RankIndex {
+    private final LatestStatReader latestStatReader;
+    private final RankingService rankingService;
+
+    private record Key(Platform platform, String metric) {}
+
+    private static final class Ranking {
+        final OrderStatisticTree tree;
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        Ranking(OrderStatisticTree tree) {
+            this.tree = tree;
+        }
+    }
+
+    public record Position(long channelId, int rank, long value) {}
+
+    public record Neighborhood(String metric, int total, Position self, List<Position> above, List<Position> below) {}
+
+    private final Map<Key, Ranking> rankings = new ConcurrentHashMap<>();
+    // Channel id -> epoch day of the row its values came from; replaced together with the trees
+    private final Map<Platform, LongLongMap> appliedDates = new ConcurrentHashMap<>();
+    // Non-null while the platform is being rebuilt; guarded by the map's monitor
+    private final Map<Platform, List<StatsWrittenEvent>> pendingRebuild = new EnumMap<>(Platform.class);
+
+    /** The metrics held in memory for a platform: the absolute ones of its configured rankings. */
+    public List<RankingMetric> metricsFor(Platform platform) {
+        return rankingService.metricsFor(platform).stream().filter(m -> !m.isGrowth()).toList();
+    }
+
+    /** Load the platform's trees from the database in one streaming pass and swap them in. */
+    public void rebuild(Platform platform) {
+        List<RankingMetric> metrics = metricsFor(platform);
+        synchronized (pendingRebuild) {
+            pendingRebuild.put(platform, new ArrayList<>());
+        }
+        try {
+            long started = System.nanoTime();
+            Map<RankingMetric, OrderStatisticTree> trees = new LinkedHashMap<>();
+            metrics.forEach(m -> trees.put(m, new OrderStatisticTree(1024)));
+            LongLongMap dates = new LongLongMap(1024);
+            long loaded = latestStatReader.forEachLatest(platform, latest -> {
+                dates.put(latest.channelId(), latest.snapshotDate().toEpochDay());
+                trees.forEach((metric, tree) -> tree.put(latest.channelId(), valueOf(latest, metric.column())));
+            });
+
+            synchronized (pendingRebuild) {
+                for (StatsWrittenEvent queued : pendingRebuild.remove(platform)) {
+                    List<DailyStatBatchWriter.Row> rows = newer(dates, queued.rows());
+                    trees.forEach((metric, tree) -> apply(tree, metric, rows));
+                }
+                appliedDates.put(platform, dates);
+                trees.forEach((metric, tree) -> rankings.put(new Key(platform, metric.name()), new Ranking(tree)));
+            }
+            log.info("Rank index for {} rebuilt: {} channels, metrics {} in {} ms", platform, loaded,
+                    trees.keySet().stream().map(RankingMetric::name).toList(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            synchronized (pendingRebuild) {
+                pendingRebuild.remove(platform);
+            }
+        }
+    }
+
+    // AFTER_COMMIT by default; also runs for writes made outside a transaction
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatsWritten(StatsWrittenEvent event) {
+        synchronized (pendingRebuild) {
+            List<StatsWrittenEvent> pending = pendingRebuild.get(event.platform());
+            if (pending != null) pending.add(event);
+        }
+        LongLongMap dates = appliedDates.get(event.platform());
+        if (dates == null) return;
+        // Filtering and applying together, so of two events for a channel the older cannot land last
+        synchronized (dates) {
+            List<DailyStatBatchWriter.Row> rows = newer(dates, event.rows());
+            if (rows.isEmpty()) return;
+            for (RankingMetric metric : metricsFor(event.platform())) {
+                Ranking ranking = rankings.get(new Key(event.platform(), metric.name()));
+                if (ranking == null) continue;
+                ranking.lock.writeLock().lock();
+                try {
+                    apply(ranking.tree, metric, rows);
+                } finally {
+                    ranking.lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    public Optional<Position> rankOf(Platform platform, String metric, long channelId) {
+        return read(platform, metric, tree -> tree.contains(channelId)
+                ? new Position(channelId, tree.rankOf(channelId), tree.valueOf(channelId))
+                : null);
+    }
+
+    public List<Position> top(Platform platform, String metric, int k) {
+        return read(platform, metric, tree -> positions(tree, 0, Math.min(k, tree.size())))
+                .orElse(List.of());
+    }
+
+    /** The channel's position plus up to {@code k} channels directly above and below it. */
+    public Optional<Neighborhood> around(Platform platform, String metric, long channelId, int k) {
+        return read(platform, metric, tree -> {
+            int at = tree.positionOf(channelId);
+            if (at < 0) return null;
+            return new Neighborhood(metric, tree.size(),
+                    new Position(channelId, tree.rankOf(channelId), tree.valueOf(channelId)),
+                    positions(tree, Math.max(0, at - k), at),
+                    positions(tree, at + 1, Math.min(tree.size(), at + 1 + k)));
+        });
+    }
+
+    private <T> Optional<T> read(Platform platform, String metric, Function<OrderStatisticTree, T> query) {
+        Ranking ranking = rankings.get(new Key(platform, metric));
+        if (ranking == null) return Optional.empty();
+        ranking.lock.readLock().lock();
+        try {
+            return Optional.ofNullable(query.apply(ranking.tree));
+        } finally {
+            ranking.lock.readLock().unlock();
+        }
+    }
+
+    // Entries in [from, to) in tree order; ranks from the values, so ties show the same rank
+    private static List<Position> positions(OrderStatisticTree tree, int from, int to) {
+        List<Position> positions = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            long value = tree.valueAt(i);
+            positions.add(new Position(tree.idAt(i), tree.countGreater(value) + 1, value));
+        }
+        return positions;
+    }
+
+    // Rows at least as recent as what each channel shows, recording their dates
+    private static List<DailyStatBatchWriter.Row> newer(LongLongMap dates, List<DailyStatBatchWriter.Row> rows) {
+        List<DailyStatBatchWriter.Row> newer = new ArrayList<>(rows.size());
+        for (DailyStatBatchWriter.Row row : rows) {
+            long day = row.snapshotDate().toEpochDay();
+            if (dates.containsKey(row.channelId()) && dates.get(row.channelId()) > day) continue;
+            dates.put(row.channelId(), day);
+            newer.add(row);
+        }
+        return newer;
+    }
+
+    private static void apply(OrderStatisticTree tree, RankingMetric metric, List<DailyStatBatchWriter.Row> rows) {
+        String counter = counterKey(metric.column());
+        for (DailyStatBatchWriter.Row row : rows) {
+            tree.put(row.channelId(), row.counters().getOrDefault(counter, 0L));
+        }
+    }
+
+    // daily_stat columns as they are named in connector counters
+    private static String counterKey(String column) {
+        return column.equals("live_views") ? "liveViews" : column;
+    }
+
+    private static long valueOf(LatestStatReader.Latest latest, String column) {
+        return switch (column) {
+            case "subscribers" -> latest.subscribers();
+            case "views" -> latest.views();
+            case "videos" -> latest.videos();
+            case "followers" -> latest.followers();
+            case "live_views" -> latest.liveViews();
+            default -> throw new IllegalArgumentException("Unknown column " + column);
+        };
+    }
+}
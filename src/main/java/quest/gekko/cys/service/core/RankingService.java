@@ -1,45 +1,45 @@
 package quest.gekko.cys.service.core;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.config.IngestionProperties;
 import quest.gekko.cys.domain.Platform;
-import quest.gekko.cys.domain.RankSnapshot;
-import quest.gekko.cys.repository.DailyStatRepository;
-import quest.gekko.cys.repository.RankSnapshotRepository;
+import quest.gekko.cys.domain.RankingMetric;
+import quest.gekko.cys.repository.RankDeltaRepository;
+import quest.gekko.cys.repository.RankSnapshotWriter;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RankingService {
-    private final DailyStatRepository statRepo;
-    private final RankSnapshotRepository rankRepo;
+    private final RankSnapshotWriter rankWriter;
+    private final RankDeltaRepository rankDeltaRepo;
+    private final IngestionProperties.Ranking props;
 
+    /** The metrics a platform is ranked by, in configuration order. */
+    public List<RankingMetric> metricsFor(Platform platform) {
+        return props.metricsFor(platform).stream().map(name -> RankingMetric.parse(name, platform)).toList();
+    }
+
+    /**
+     * Rank every channel of the platform by each configured metric, from its latest stat on or
+     * before {@code date} (channels on slower refresh tiers have no row for the day itself).
+     * All metrics are computed in one pass and written in one transaction; reruns replace the
+     * day's rankings rather than adding to them. Rank changes against earlier days are derived
+     * from the new rankings in the same transaction.
+     */
     @Transactional
     public void computeDailyRanks(LocalDate date, Platform platform) {
-        record Pair(Long channelId, long val) {}
-
-        List<Pair> vals = statRepo.findAllOn(date).stream()
-                .filter(ds -> ds.getChannel().getPlatform()==platform)
-                .map(ds -> new Pair(ds.getChannel().getId(),
-                        platform==Platform.YOUTUBE ? (ds.getSubscribers()==null?0:ds.getSubscribers())
-                                : (ds.getFollowers()==null?0:ds.getFollowers())))
-                .sorted((a,b)->Long.compare(b.val, a.val))
-                .toList();
-
-        int rank = 1;
-        for (Pair pr : vals) {
-            RankSnapshot rs = new RankSnapshot();
-            rs.setSnapshotDate(date);
-            rs.setPlatform(platform);
-            rs.setMetric(platform==Platform.YOUTUBE?"subscribers":"followers");
-            Channel c = new Channel(); c.setId(pr.channelId());
-            rs.setChannel(c);
-            rs.setRank(rank++);
-            rankRepo.save(rs);
-        }
+        List<RankingMetric> metrics = metricsFor(platform);
+        long started = System.nanoTime();
+        int rows = rankWriter.replace(date, platform, metrics);
+        int deltas = rankDeltaRepo.replace(date, platform);
+        log.info("Ranked {} channels by {} for {}: {} rows, {} deltas in {} ms", platform,
+                metrics.stream().map(RankingMetric::name).toList(), date, rows, deltas, (System.nanoTime() - started) / 1_000_000);
     }
-}
\ No newline at end of file
+}
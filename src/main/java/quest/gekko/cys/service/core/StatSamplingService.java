@@ -0,0 +1,45 @@
+package quest.gekko.cys.service.core;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.repository.StatSampleRepository;
+import quest.gekko.cys.service.scheduling.ClusterJobLock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Rolls intraday {@code stat_sample} rows up into {@code daily_stat} and prunes old samples.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatSamplingService {
+    private final StatSampleRepository sampleRepository;
+    private final IngestionProperties.Sampling sampling;
+    private final ClusterJobLock clusterJobLock;
+
+    // Hourly, after the :10 refresh has had time to finish
+    @Scheduled(cron = "0 40 * * * *", zone = "UTC")
+    public void rollup() {
+        clusterJobLock.runExclusively("stat-sample-rollup", Duration.ofMinutes(30), Duration.ofMinutes(1), () -> {
+            // Yesterday too, so samples taken just before midnight land in the right row
+            Instant since = LocalDate.now(ZoneOffset.UTC).minusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+            int rows = sampleRepository.rollupSince(since);
+            log.debug("Rolled up samples into {} daily_stat rows", rows);
+        });
+    }
+
+    @Scheduled(cron = "0 30 4 * * *", zone = "UTC")
+    public void prune() {
+        clusterJobLock.runExclusively("stat-sample-prune", Duration.ofMinutes(30), Duration.ofMinutes(1), () -> {
+            int deleted = sampleRepository.deleteOlderThan(Instant.now().minus(sampling.retention()));
+            log.info("Pruned {} stat samples older than {}", deleted, sampling.retention());
+        });
+    }
+}
@@ -1,34 +1,74 @@
 package quest.gekko.cys.service.core;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import quest.gekko.cys.domain.Channel;
-import quest.gekko.cys.domain.DailyStat;
-import quest.gekko.cys.repository.DailyStatRepository;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+import quest.gekko.cys.repository.StatSampleRepository;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class StatsService {
-    private final DailyStatRepository statRepo;
+    private final DailyStatBatchWriter statWriter;
+    private final StatSampleRepository sampleRepository;
+    private final ApplicationEventPublisher events;
 
+    /**
+     * Write today's counters for one channel. A second snapshot on the same date
+     * overwrites the counters of the first.
+     */
     @Transactional
-    public DailyStat snapshot(final Channel channel, final Map<String, Long> counters, final LocalDate date) {
-        return statRepo.findTopByChannelIdOrderBySnapshotDateDesc(channel.getId())
-                .filter(last -> last.getSnapshotDate().equals(date))
-                .orElseGet(() -> {
-                    DailyStat dailyStat = new DailyStat();
-                    dailyStat.setChannel(channel);
-                    dailyStat.setSnapshotDate(date);
-                    dailyStat.setSubscribers(counters.getOrDefault("subscribers",0L));
-                    dailyStat.setViews(counters.getOrDefault("views",0L));
-                    dailyStat.setVideos(counters.getOrDefault("videos",0L));
-                    dailyStat.setFollowers(counters.getOrDefault("followers",0L));
-                    dailyStat.setLiveViews(counters.getOrDefault("liveViews",0L));
-                    return statRepo.save(dailyStat);
-                });
+    public void snapshot(final Channel channel, final Map<String, Long> counters, final LocalDate date) {
+        snapshotAll(channel.getPlatform(), List.of(new DailyStatBatchWriter.Row(channel.getId(), date, counters)));
     }
-}
\ No newline at end of file
+
+    /**
+     * Snapshot one chunk of channels in a single transaction using batched upserts.
+     *
+     * @return number of channels that had counters and were written
+     */
+    @Transactional
+    public int snapshotChunk(final List<Channel> channels, final Map<String, Map<String, Long>> countersByPlatformId, final LocalDate date) {
+        Map<Platform, List<DailyStatBatchWriter.Row>> rowsByPlatform = new EnumMap<>(Platform.class);
+        for (Channel channel : channels) {
+            var counters = countersByPlatformId.get(channel.getPlatformId());
+            if (counters == null) continue;
+            rowsByPlatform.computeIfAbsent(channel.getPlatform(), p -> new ArrayList<>())
+                    .add(new DailyStatBatchWriter.Row(channel.getId(), date, counters));
+        }
+        int written = 0;
+        for (var entry : rowsByPlatform.entrySet()) {
+            written += snapshotAll(entry.getKey(), entry.getValue());
+        }
+        return written;
+    }
+
+    /**
+     * Upsert rows for channels of one platform. Listeners of {@link StatsWrittenEvent} (the rank
+     * index) see them once the surrounding transaction commits.
+     */
+    @Transactional
+    public int snapshotAll(final Platform platform, final List<DailyStatBatchWriter.Row> rows) {
+        int written = statWriter.upsert(rows);
+        if (written > 0) events.publishEvent(new StatsWrittenEvent(platform, rows));
+        return written;
+    }
+
+    /**
+     * Append intraday samples; {@link StatSamplingService} later rolls them into the daily rows.
+     */
+    @Transactional
+    public void sample(final List<DailyStatBatchWriter.Row> rows, final Instant sampledAt) {
+        sampleRepository.append(rows, sampledAt);
+    }
+}
@@ -0,0 +1,9 @@
+package quest.gekko.cys.service.core;
+
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+
+import java.util.List;
+
+/** Published by {@link StatsService} for every batch of daily_stat rows it writes. */
+public record StatsWrittenEvent(Platform platform, List<DailyStatBatchWriter.Row> rows) {}
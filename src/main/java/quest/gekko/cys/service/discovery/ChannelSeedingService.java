@@ -3,8 +3,9 @@ package quest.gekko.cys.service.discovery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import quest.gekko.cys.domain.Platform;
-import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.core.ChannelResolver;
 import quest.gekko.cys.service.core.ChannelService;
+import quest.gekko.cys.service.integration.connector.PlatformConnector;
 
 import java.util.List;
 import java.util.Map;
@@ -15,6 +16,7 @@ public class ChannelSeedingService {
 
     private final Map<Platform, PlatformConnector> connectorsByPlatform;
     private final ChannelService channelService;
+    private final ChannelResolver channelResolver;
 
     // Popular tech channels to seed the database
     private final List<String> POPULAR_TECH_CHANNELS = List.of(
@@ -49,7 +51,7 @@ public class ChannelSeedingService {
 
         for (String handle : allChannels) {
             try {
-                var channelOpt = youtubeConnector.resolveAndHydrate(handle);
+                var channelOpt = channelResolver.resolve(Platform.YOUTUBE, handle);
                 if (channelOpt.isPresent()) {
                     channelService.upsertChannel(channelOpt.get());
                     System.out.println("✓ Added: " + handle);
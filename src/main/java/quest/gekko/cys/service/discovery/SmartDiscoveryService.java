@@ -9,10 +9,19 @@ import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
 import quest.gekko.cys.repository.ChannelRepository;
 import quest.gekko.cys.repository.DailyStatRepository;
+import quest.gekko.cys.service.core.ChannelResolver;
 import quest.gekko.cys.service.core.ChannelService;
 import quest.gekko.cys.service.core.StatsService;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
-
+import quest.gekko.cys.service.integration.connector.ReactivePlatformConnector;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
+import quest.gekko.cys.service.scheduling.ClusterJobLock;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -25,9 +34,11 @@ import java.util.stream.Collectors;
 public class SmartDiscoveryService {
     private final Map<Platform, PlatformConnector> connectorsByPlatform;
     private final ChannelService channelService;
+    private final ChannelResolver channelResolver;
     private final ChannelRepository channelRepo;
     private final DailyStatRepository statRepo;
     private final StatsService statsService;
+    private final ClusterJobLock clusterJobLock;
 
     // Massively expanded discovery queries for rapid population
     private final List<DiscoveryCategory> DISCOVERY_CATEGORIES = List.of(
@@ -111,6 +122,9 @@ public class SmartDiscoveryService {
             ))
     );
 
+    private static final int SNAPSHOT_BATCH_SIZE = 50;
+    private static final int SNAPSHOT_CONCURRENCY = 16;
+
     private int currentQueryIndex = 0;
     private final AtomicInteger discoveryProgress = new AtomicInteger(0);
 
@@ -119,10 +133,13 @@ public class SmartDiscoveryService {
      */
     @Scheduled(cron = "0 */15 * * * *", zone = "UTC") // Every 15 minutes during bootstrap
     public void rapidDiscoveryMode() {
-        if (shouldRunRapidMode()) {
-            log.info("🚀 Triggering rapid discovery mode");
-            runParallelDiscoveryAsync();
-        }
+        // Held for most of the interval: the discovery itself continues on the async executor
+        clusterJobLock.runExclusively("discovery-rapid", Duration.ofMinutes(14), Duration.ofMinutes(14), () -> {
+            if (shouldRunRapidMode()) {
+                log.info("🚀 Triggering rapid discovery mode");
+                runParallelDiscoveryAsync();
+            }
+        });
     }
 
     /**
@@ -130,10 +147,12 @@ public class SmartDiscoveryService {
      */
     @Scheduled(cron = "0 0 3 * * *", zone = "UTC")
     public void dailyDiscovery() {
-        if (!shouldRunRapidMode()) {
-            log.info("📅 Running daily discovery");
-            runStandardDiscoveryAsync();
-        }
+        clusterJobLock.runExclusively("discovery-daily", Duration.ofHours(12), Duration.ofHours(1), () -> {
+            if (!shouldRunRapidMode()) {
+                log.info("📅 Running daily discovery");
+                runStandardDiscoveryAsync();
+            }
+        });
     }
 
     private boolean shouldRunRapidMode() {
@@ -261,7 +280,8 @@ public class SmartDiscoveryService {
         List<CompletableFuture<String>> futures = popularHandles.stream()
                 .map(handle -> CompletableFuture.supplyAsync(() -> {
                     try {
-                        var channelOpt = youtubeConnector.resolveAndHydrate(handle);
+                        var channelOpt = QuotaScope.call(QuotaConsumer.DISCOVERY,
+                                () -> channelResolver.resolve(Platform.YOUTUBE, handle));
                         if (channelOpt.isPresent()) {
                             channelService.upsertChannel(channelOpt.get());
                             log.debug("✓ Added: " + handle);
@@ -401,7 +421,7 @@ public class SmartDiscoveryService {
 
     private int discoverChannelsForTerm(PlatformConnector connector, String term, int maxResults) {
         try {
-            var channels = connector.search(term, maxResults);
+            var channels = QuotaScope.call(QuotaConsumer.DISCOVERY, () -> connector.search(term, maxResults));
             int discovered = 0;
 
             for (var channel : channels) {
@@ -500,28 +520,53 @@ public class SmartDiscoveryService {
             var youtubeConnector = connectorsByPlatform.get(Platform.YOUTUBE);
             if (youtubeConnector == null) return "No YouTube connector available";
 
-            // Process snapshots in parallel batches
-            List<CompletableFuture<Boolean>> futures = channels.stream()
+            List<Channel> youtubeChannels = channels.stream()
                     .filter(c -> c.getPlatform() == Platform.YOUTUBE)
-                    .map(channel -> CompletableFuture.supplyAsync(() -> {
+                    .toList();
+
+            List<List<Channel>> batches = new ArrayList<>();
+            for (int i = 0; i < youtubeChannels.size(); i += SNAPSHOT_BATCH_SIZE) {
+                batches.add(youtubeChannels.subList(i, Math.min(i + SNAPSHOT_BATCH_SIZE, youtubeChannels.size())));
+            }
+
+            long processed;
+            if (youtubeConnector.reactive().orElse(null) instanceof ReactivePlatformConnector reactive) {
+                // Counters calls share the event loop; only the database writes need a worker thread
+                processed = Flux.fromIterable(batches)
+                        .flatMap(batch -> reactive.fetchCountersReactive(batch.stream().map(Channel::getPlatformId).toList())
+                                .publishOn(Schedulers.boundedElastic())
+                                .map(countersById -> (long) statsService.snapshotChunk(batch, countersById, LocalDate.now()))
+                                .onErrorResume(e -> {
+                                    log.error("Error processing snapshot batch of " + batch.size() + ": " + e.getMessage());
+                                    return Mono.just(0L);
+                                }), SNAPSHOT_CONCURRENCY)
+                        .reduce(0L, Long::sum)
+                        .contextWrite(QuotaScope.context(QuotaConsumer.INGESTION))
+                        .blockOptional()
+                        .orElse(0L);
+            } else {
+                // Process snapshots in parallel batches, one counters call per batch
+                List<CompletableFuture<Long>> futures = new ArrayList<>();
+                for (List<Channel> batch : batches) {
+                    futures.add(CompletableFuture.supplyAsync(() -> {
                         try {
-                            var counters = youtubeConnector.fetchCounters(channel.getPlatformId());
-                            statsService.snapshot(channel, counters, LocalDate.now());
-                            return true;
+                            var countersById = QuotaScope.call(QuotaConsumer.INGESTION, () -> youtubeConnector.fetchCounters(
+                                    batch.stream().map(Channel::getPlatformId).toList()));
+                            return (long) statsService.snapshotChunk(batch, countersById, LocalDate.now());
                         } catch (Exception e) {
-                            log.error("Error processing " + channel.getHandle() + ": " + e.getMessage());
-                            return false;
+                            log.error("Error processing snapshot batch of " + batch.size() + ": " + e.getMessage());
+                            return 0L;
                         }
-                    }))
-                    .collect(Collectors.toList());
+                    }));
+                }
 
-            // Wait for all snapshots to complete
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                // Wait for all snapshots to complete
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
 
-            long processed = futures.stream()
-                    .map(CompletableFuture::join)
-                    .filter(success -> success)
-                    .count();
+                processed = futures.stream()
+                        .mapToLong(CompletableFuture::join)
+                        .sum();
+            }
 
             return String.format("✅ Batch snapshot completed! Processed %d/%d channels",
                     processed, channels.size());
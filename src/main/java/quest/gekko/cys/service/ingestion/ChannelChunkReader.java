@@ -0,0 +1,56 @@
+package quest.gekko.cys.service.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.ChannelRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Streams a platform's channels in id order using keyset pagination ({@code id > :lastId LIMIT n}).
+ * Each chunk is read in its own short transaction, so the returned entities are detached and
+ * nothing accumulates in a persistence context across the whole run.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChannelChunkReader {
+    private final ChannelRepository channelRepository;
+
+    public long forEachChunk(Platform platform, int chunkSize, Consumer<List<Channel>> handler) {
+        return forEachChunk(platform, 0L, chunkSize, handler);
+    }
+
+    public long forEachChunk(Platform platform, long afterId, int chunkSize, Consumer<List<Channel>> handler) {
+        return forEachChunk(platform, afterId, Long.MAX_VALUE, null, chunkSize, handler);
+    }
+
+    /**
+     * Hand every channel with an id in {@code (afterId, upToId]} to {@code handler}, chunk by chunk.
+     * When {@code dueBefore} is set only channels whose next refresh falls before it are read.
+     *
+     * @return number of channels read
+     */
+    public long forEachChunk(Platform platform, long afterId, long upToId, Instant dueBefore, int chunkSize,
+                             Consumer<List<Channel>> handler) {
+        long lastId = afterId;
+        long total = 0;
+        while (true) {
+            List<Channel> chunk = dueBefore == null
+                    ? channelRepository.findChunkAfter(platform, lastId, upToId, Limit.of(chunkSize))
+                    : channelRepository.findDueChunkAfter(platform, lastId, upToId, dueBefore, Limit.of(chunkSize));
+            if (chunk.isEmpty()) break;
+
+            handler.accept(chunk);
+            total += chunk.size();
+            lastId = chunk.getLast().getId();
+
+            if (chunk.size() < chunkSize) break;
+        }
+        return total;
+    }
+}
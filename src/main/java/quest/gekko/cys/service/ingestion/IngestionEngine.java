@@ -0,0 +1,303 @@
+package quest.gekko.cys.service.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.IngestionRun;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RefreshTier;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+import quest.gekko.cys.repository.SnapshotTaskRepository.Task;
+import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaExceededException;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent snapshot pipeline:
+ * <pre>
+ *   task claims  ->  connector calls on virtual threads  ->  bounded queue  ->  per-task writer
+ * </pre>
+ * A run is split into {@code snapshot_task} id ranges that any node can claim, so adding nodes
+ * adds throughput. Within a node, in-flight connector calls are capped per {@link Platform}
+ * (shared by every run against that platform); the claimer blocks when no permit is free and
+ * fetchers block when the queue is full, so memory stays bounded even if the database falls behind.
+ * <p>
+ * Each task is committed in one transaction once all of its batches are back, so a crash loses
+ * at most the tasks that were in flight; their leases expire and another claim picks them up.
+ * Connector calls are charged to {@link QuotaConsumer#INGESTION}; when that quota runs out the
+ * node hands its unfinished tasks back and the run stays RUNNING until a later trigger.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionEngine {
+    private final ChannelChunkReader channelChunkReader;
+    private final IngestionRunService runService;
+    private final IngestionProperties.Engine props;
+    private final IngestionProperties.Queue queueProps;
+    private final IngestionProperties.Sampling sampling;
+
+    private final Map<Platform, Semaphore> platformLimits = new EnumMap<>(Platform.class);
+
+    public record RunResult(Platform platform, IngestionRun.Status status, long channels, long written,
+                            long failedBatches, Duration elapsed) {
+        @Override
+        public String toString() {
+            return "%s %s: %d/%d channels written, %d failed batches in %ds"
+                    .formatted(platform, status, written, channels, failedBatches, elapsed.toSeconds());
+        }
+    }
+
+    private record FetchedBatch(Task task, int batchesInTask, List<Channel> channels,
+                                Map<String, Map<String, Long>> counters, boolean failed, boolean deferred) {}
+
+    private static final FetchedBatch END = new FetchedBatch(null, 0, List.of(), Map.of(), false, false);
+
+    /**
+     * Start or join the run with the given key and work on it until every task is done, or
+     * until the ingestion quota runs out.
+     *
+     * @param dueBefore only refresh channels due before this instant, or every channel if null
+     * @return empty if the run already completed
+     */
+    public Optional<RunResult> run(PlatformConnector connector, String runKey, LocalDate date, Instant dueBefore) {
+        Optional<IngestionRun> run;
+        try {
+            run = runService.startOrResume(runKey, connector.platform(), date, dueBefore);
+        } catch (DataIntegrityViolationException e) {
+            // Another node created the same run first
+            run = runService.startOrResume(runKey, connector.platform(), date, dueBefore);
+        }
+        return run.map(r -> work(connector, runService.enqueueTasks(r.getId()), true));
+    }
+
+    /**
+     * {@link #run} on the snapshot executor, for callers that must not wait for the run; progress
+     * is in the run's {@code ingestion_run} row.
+     */
+    @Async("snapshotExecutor")
+    public CompletableFuture<Optional<RunResult>> runAsync(PlatformConnector connector, String runKey, LocalDate date,
+                                                           Instant dueBefore) {
+        try {
+            return CompletableFuture.completedFuture(run(connector, runKey, date, dueBefore));
+        } catch (RuntimeException e) {
+            log.error("Ingestion run {} for {} failed: {}", runKey, connector.platform(), e.getMessage(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Help with every running run this node has a connector for, without waiting on tasks
+     * other nodes hold. Runs that are still being enqueued are left for the next call.
+     */
+    public void workAvailable(Map<Platform, PlatformConnector> connectors) {
+        for (IngestionRun run : runService.findRunning()) {
+            PlatformConnector connector = connectors.get(run.getPlatform());
+            if (connector == null || run.getEnqueuedAt() == null) continue;
+            work(connector, run, false);
+        }
+    }
+
+    /**
+     * Claim and process tasks of {@code run}.
+     *
+     * @param untilComplete keep polling while other nodes hold the remaining tasks, so the run
+     *                      is COMPLETED when this returns (unless the quota ran out)
+     */
+    public RunResult work(PlatformConnector connector, IngestionRun run, boolean untilComplete) {
+        Platform platform = connector.platform();
+        Semaphore permits = permitsFor(platform);
+        BlockingQueue<FetchedBatch> queue = new ArrayBlockingQueue<>(props.queueCapacity());
+        AtomicBoolean outOfQuota = new AtomicBoolean();
+        long started = System.nanoTime();
+        int tasksDone = 0;
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Integer> writer = executor.submit(() -> drain(queue, run));
+
+            // Tracks fetchers still running; the claimer is registered as the first party
+            Phaser inFlight = new Phaser(1);
+            try {
+                while (!outOfQuota.get()) {
+                    List<Task> tasks = runService.claim(run.getId(), queueProps.claimSize());
+                    if (tasks.isEmpty()) {
+                        if (!untilComplete || runService.tryComplete(run.getId())) break;
+                        // The rest is leased by fetchers here or on other nodes
+                        Thread.sleep(queueProps.pollInterval());
+                        continue;
+                    }
+                    for (Task task : tasks) {
+                        if (outOfQuota.get()) {
+                            runService.release(task);
+                        } else {
+                            submit(connector, run, task, executor, queue, outOfQuota, permits, inFlight);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("Claiming tasks for run {} failed: {}", run.getId(), e.getMessage());
+            } finally {
+                // Even if claiming fails, let the fetchers finish and stop the writer
+                inFlight.arriveAndAwaitAdvance();
+                queue.put(END);
+            }
+            tasksDone = writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Ingestion writer for run {} failed", run.getId(), e.getCause());
+        }
+
+        if (!outOfQuota.get()) runService.tryComplete(run.getId());
+        IngestionRun current = runService.get(run.getId());
+        RunResult result = new RunResult(platform, current.getStatus(), current.getChannelsRead(),
+                current.getChannelsWritten(), current.getFailedBatches(), Duration.ofNanos(System.nanoTime() - started));
+        log.info("Ingestion run {} ({}): {} tasks done on this node - {}", run.getId(), run.getRunKey(), tasksDone, result);
+        return result;
+    }
+
+    /** Read the task's channels and start one fetcher per batch. */
+    private void submit(PlatformConnector connector, IngestionRun run, Task task, ExecutorService executor,
+                        BlockingQueue<FetchedBatch> queue, AtomicBoolean outOfQuota, Semaphore permits, Phaser inFlight) {
+        List<Channel> channels = new ArrayList<>();
+        channelChunkReader.forEachChunk(connector.platform(), task.firstChannelId() - 1, task.lastChannelId(),
+                run.getDueBefore(), props.chunkSize(), channels::addAll);
+
+        if (channels.isEmpty()) {
+            // Everything in the range was refreshed since the run was enqueued
+            runService.complete(task, new IngestionRunService.Commit(connector.platform(), List.of(), List.of(), Map.of(), 0, 0));
+            return;
+        }
+
+        int batches = (channels.size() + props.fetchBatchSize() - 1) / props.fetchBatchSize();
+        for (int i = 0; i < channels.size(); i += props.fetchBatchSize()) {
+            List<Channel> batch = channels.subList(i, Math.min(i + props.fetchBatchSize(), channels.size()));
+            acquire(permits);
+            inFlight.register();
+            executor.submit(() -> fetch(connector, task, batches, batch, queue, outOfQuota, permits, inFlight));
+        }
+    }
+
+    private void fetch(PlatformConnector connector, Task task, int batches, List<Channel> batch,
+                       BlockingQueue<FetchedBatch> queue, AtomicBoolean outOfQuota, Semaphore permits, Phaser inFlight) {
+        try {
+            FetchedBatch fetched;
+            if (outOfQuota.get()) {
+                fetched = new FetchedBatch(task, batches, batch, Map.of(), false, true);
+            } else {
+                try {
+                    var counters = QuotaScope.call(QuotaConsumer.INGESTION,
+                            () -> connector.fetchCounters(batch.stream().map(Channel::getPlatformId).toList()));
+                    fetched = new FetchedBatch(task, batches, batch, counters, false, false);
+                } catch (QuotaExceededException e) {
+                    if (outOfQuota.compareAndSet(false, true)) {
+                        log.warn("{} quota spent; handing task {} and the rest of run {} back",
+                                connector.platform(), task.id(), task.runId());
+                    }
+                    fetched = new FetchedBatch(task, batches, batch, Map.of(), false, true);
+                } catch (Exception e) {
+                    log.warn("Counters fetch for {} batch starting at channel {} failed: {}",
+                            connector.platform(), batch.getFirst().getId(), e.getMessage());
+                    fetched = new FetchedBatch(task, batches, batch, Map.of(), true, false);
+                }
+            }
+            // Every batch goes to the writer so it can tell when its task is complete
+            queue.put(fetched);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            permits.release();
+            inFlight.arriveAndDeregister();
+        }
+    }
+
+    /** Batches of one task collected until all of them are back. */
+    private final class TaskBuffer {
+        final List<DailyStatBatchWriter.Row> rows = new ArrayList<>();
+        final List<DailyStatBatchWriter.Row> samples = new ArrayList<>();
+        final Map<RefreshTier, List<Long>> refreshed = new EnumMap<>(RefreshTier.class);
+        int received;
+        long read;
+        long failed;
+        boolean deferred;
+
+        void add(FetchedBatch batch, LocalDate snapshotDate) {
+            received++;
+            read += batch.channels().size();
+            if (batch.failed()) failed++;
+            if (batch.deferred()) deferred = true;
+            for (Channel channel : batch.channels()) {
+                var counters = batch.counters().get(channel.getPlatformId());
+                if (counters == null) continue;
+                var row = new DailyStatBatchWriter.Row(channel.getId(), snapshotDate, counters);
+                rows.add(row);
+                if (sampling.sampledTiers().contains(channel.getRefreshTier())) samples.add(row);
+                refreshed.computeIfAbsent(channel.getRefreshTier(), t -> new ArrayList<>()).add(channel.getId());
+            }
+        }
+    }
+
+    /**
+     * Writer stage: commits each task once all of its batches have arrived. A task with a batch
+     * deferred for quota is released unwritten; a task whose commit fails keeps its lease and is
+     * retried elsewhere after it expires.
+     *
+     * @return number of tasks committed
+     */
+    private int drain(BlockingQueue<FetchedBatch> queue, IngestionRun run) throws InterruptedException {
+        Map<Long, TaskBuffer> buffers = new HashMap<>();
+        int done = 0;
+
+        while (true) {
+            FetchedBatch batch = queue.take();
+            if (batch == END) return done;
+
+            TaskBuffer buffer = buffers.computeIfAbsent(batch.task().id(), id -> new TaskBuffer());
+            buffer.add(batch, run.getSnapshotDate());
+            if (buffer.received < batch.batchesInTask()) continue;
+
+            buffers.remove(batch.task().id());
+            try {
+                if (buffer.deferred) {
+                    runService.release(batch.task());
+                } else {
+                    runService.complete(batch.task(), new IngestionRunService.Commit(run.getPlatform(), buffer.rows, buffer.samples,
+                            buffer.refreshed, buffer.read, buffer.failed));
+                    done++;
+                }
+            } catch (Exception e) {
+                log.error("Committing task {} of run {} ({} rows) failed: {}",
+                        batch.task().id(), run.getId(), buffer.rows.size(), e.getMessage());
+            }
+        }
+    }
+
+    private Semaphore permitsFor(Platform platform) {
+        synchronized (platformLimits) {
+            return platformLimits.computeIfAbsent(platform, p -> new Semaphore(props.concurrencyFor(p)));
+        }
+    }
+
+    private static void acquire(Semaphore permits) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a connector permit", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package quest.gekko.cys.service.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import quest.gekko.cys.config.ClusterProperties;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.domain.IngestionRun;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RefreshTier;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+import quest.gekko.cys.repository.IngestionRunRepository;
+import quest.gekko.cys.repository.SnapshotTaskRepository;
+import quest.gekko.cys.service.core.StatsService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bookkeeping for {@code ingestion_run} and its {@code snapshot_task} queue. A task's stats rows
+ * and its DONE mark are committed in the same transaction, so after a crash a task is either
+ * fully written or claimable again once its lease runs out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IngestionRunService {
+    private final IngestionRunRepository runRepository;
+    private final SnapshotTaskRepository taskRepository;
+    private final StatsService statsService;
+    private final RefreshPlanner refreshPlanner;
+    private final IngestionProperties.Queue queueProps;
+    private final ClusterProperties.Node node;
+
+    /**
+     * Start a run, or pick up an unfinished one with the same key.
+     *
+     * @return empty if a run with this key already completed
+     */
+    @Transactional
+    public Optional<IngestionRun> startOrResume(String runKey, Platform platform, LocalDate snapshotDate, Instant dueBefore) {
+        var existing = runRepository.findByRunKeyAndPlatform(runKey, platform);
+        if (existing.isPresent()) {
+            IngestionRun run = existing.get();
+            if (run.getStatus() == IngestionRun.Status.COMPLETED) return Optional.empty();
+
+            log.info("Joining ingestion run {} ({} {})", run.getId(), runKey, platform);
+            run.setStatus(IngestionRun.Status.RUNNING);
+            run.setUpdatedAt(Instant.now());
+            return Optional.of(runRepository.save(run));
+        }
+
+        IngestionRun run = new IngestionRun();
+        run.setRunKey(runKey);
+        run.setPlatform(platform);
+        run.setSnapshotDate(snapshotDate);
+        run.setDueBefore(dueBefore);
+        return Optional.of(runRepository.save(run));
+    }
+
+    /**
+     * Split the run into tasks, once. Holding the run's row lock makes a second node wait here
+     * and then find the tasks already in place.
+     */
+    @Transactional
+    public IngestionRun enqueueTasks(Long runId) {
+        IngestionRun run = runRepository.findByIdForUpdate(runId).orElseThrow();
+        if (run.getEnqueuedAt() != null) return run;
+
+        int tasks = taskRepository.enqueue(run.getId(), run.getPlatform().name(), run.getDueBefore(), queueProps.taskSize());
+        log.info("Enqueued {} snapshot tasks for run {} ({} {})", tasks, run.getId(), run.getRunKey(), run.getPlatform());
+        run.setEnqueuedAt(Instant.now());
+        run.setUpdatedAt(Instant.now());
+        return runRepository.save(run);
+    }
+
+    public List<IngestionRun> findUnfinishedSince(LocalDate since) {
+        return runRepository.findByStatusNotAndSnapshotDateGreaterThanEqualOrderByStartedAtAsc(
+                IngestionRun.Status.COMPLETED, since);
+    }
+
+    public List<IngestionRun> findRunning() {
+        return runRepository.findByStatusOrderByStartedAtAsc(IngestionRun.Status.RUNNING);
+    }
+
+    public List<SnapshotTaskRepository.Task> claim(Long runId, int limit) {
+        return taskRepository.claim(runId, node.id(), limit, queueProps.lease());
+    }
+
+    /** Hand a claimed task back without waiting for its lease to expire. */
+    public void release(SnapshotTaskRepository.Task task) {
+        taskRepository.release(task.id(), node.id());
+    }
+
+    /**
+     * One finished task: stats rows (and intraday samples for sampled tiers), the written
+     * channels grouped by tier for rescheduling, and counts for the run's totals.
+     */
+    public record Commit(Platform platform,
+                         List<DailyStatBatchWriter.Row> rows,
+                         List<DailyStatBatchWriter.Row> samples,
+                         Map<RefreshTier, List<Long>> refreshedByTier,
+                         long read, long failedBatches) {}
+
+    /**
+     * Write stats, schedule the written channels' next refresh and mark the task done, all in
+     * one transaction.
+     */
+    @Transactional
+    public int complete(SnapshotTaskRepository.Task task, Commit commit) {
+        Instant now = Instant.now();
+        int written = commit.rows().isEmpty() ? 0 : statsService.snapshotAll(commit.platform(), commit.rows());
+        statsService.sample(commit.samples(), now);
+        commit.refreshedByTier().forEach((tier, ids) -> refreshPlanner.scheduleNext(tier, ids, now));
+
+        // A task whose lease expired may have been finished by another node meanwhile; the
+        // upserts above are idempotent, but its totals must only be counted once
+        if (taskRepository.markDone(task.id(), node.id())) {
+            runRepository.addProgress(task.runId(), commit.read(), written, commit.failedBatches(), now);
+        }
+        return written;
+    }
+
+    /**
+     * Mark the run COMPLETED if none of its tasks are left.
+     *
+     * @return true only for the caller whose update completed the run
+     */
+    @Transactional
+    public boolean tryComplete(Long runId) {
+        if (taskRepository.countOpen(runId) > 0) return false;
+        return runRepository.markCompleted(runId, IngestionRun.Status.COMPLETED, Instant.now()) == 1;
+    }
+
+    public IngestionRun get(Long runId) {
+        return runRepository.findById(runId).orElseThrow();
+    }
+}
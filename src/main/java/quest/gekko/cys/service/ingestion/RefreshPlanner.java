@@ -0,0 +1,48 @@
+package quest.gekko.cys.service.ingestion;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.domain.RefreshTier;
+import quest.gekko.cys.repository.ChannelRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Decides how often each channel is refreshed. Big or fast-moving channels are fetched hourly,
+ * dead ones monthly, so quota and writes go where the numbers actually change.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshPlanner {
+    private final ChannelRepository channelRepository;
+    private final IngestionProperties.Tiers tiers;
+
+    /**
+     * Re-tier every channel from its latest {@code daily_stat} and recent growth rate.
+     * Channels without stats keep their current tier.
+     */
+    @Transactional
+    public int replan() {
+        int changed = channelRepository.assignRefreshTiers(
+                tiers.growthWindowDays(),
+                tiers.hourlyMinSize(), tiers.hourlyMinGrowth(),
+                tiers.dailyMinSize(), tiers.dailyMinGrowth(),
+                tiers.weeklyMinSize());
+        log.info("Refresh planner moved {} channels to a new tier", changed);
+        return changed;
+    }
+
+    /**
+     * Push the next refresh of freshly snapshotted channels out by their tier's interval.
+     */
+    @Transactional
+    public void scheduleNext(RefreshTier tier, Collection<Long> channelIds, Instant refreshedAt) {
+        if (channelIds.isEmpty()) return;
+        channelRepository.scheduleNextRefresh(channelIds, refreshedAt.plus(tier.interval()).minus(tiers.slack()));
+    }
+}
@@ -0,0 +1,97 @@
+package quest.gekko.cys.service.integration.connector;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.service.core.ChannelResolver;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
+import quest.gekko.cys.util.SingleFlight;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight layer over a connector: concurrent callers asking for the same thing (same
+ * normalised handle, query or id set) share one upstream call and its result, so a burst of
+ * identical requests spends quota once and produces one channel to upsert rather than several
+ * racing on the (platform, platform_id) unique key.
+ * <p>
+ * Callers that join an in-flight call get their own copies of any channels, since callers go
+ * on to save and mutate them. Only callers charged to the same {@link QuotaConsumer} share a
+ * call, so one consumer running out of quota never fails another's request.
+ */
+public class CoalescingConnector extends ForwardingPlatformConnector {
+    private final SingleFlight<String, Object> flights = new SingleFlight<>();
+    private final MeterRegistry meterRegistry;
+
+    public CoalescingConnector(PlatformConnector delegate, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("connector.singleflight.inflight",
+                List.of(Tag.of("platform", delegate.platform().name())),
+                flights, SingleFlight::inFlight);
+    }
+
+    @Override
+    public Optional<Channel> resolveAndHydrate(String handleOrUrl) {
+        if (handleOrUrl == null) return delegate.resolveAndHydrate(null);
+        // Handles and hosts are case-insensitive, channel ids are not
+        Optional<Channel> result = coalesce("resolve", ChannelResolver.normalize(handleOrUrl).cacheKey(platform()),
+                () -> delegate.resolveAndHydrate(handleOrUrl));
+        return result.map(CoalescingConnector::copy);
+    }
+
+    @Override
+    public List<Channel> search(String query, int maxResults) {
+        if (query == null) return delegate.search(null, maxResults);
+        String key = SearchCachingConnector.normalize(query) + "|" + maxResults;
+        List<Channel> result = coalesce("search", key, () -> delegate.search(query, maxResults));
+        return result.stream().map(CoalescingConnector::copy).toList();
+    }
+
+    @Override
+    public Map<String, Long> fetchCounters(String platformId) {
+        return coalesce("counters", platformId, () -> delegate.fetchCounters(platformId));
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+        return coalesce("counters", idSetKey(platformIds), () -> delegate.fetchCounters(platformIds));
+    }
+
+    @Override
+    public List<Channel> hydrate(Collection<String> platformIds) {
+        List<Channel> result = coalesce("hydrate", idSetKey(platformIds), () -> delegate.hydrate(platformIds));
+        return result.stream().map(CoalescingConnector::copy).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T coalesce(String operation, String key, Supplier<T> call) {
+        var outcome = flights.call(QuotaScope.current() + ":" + operation + ":" + key, (Supplier<Object>) (Supplier<?>) call);
+        meterRegistry.counter("connector.singleflight.calls",
+                "platform", platform().name(), "operation", operation,
+                "result", outcome.shared() ? "shared" : "leader").increment();
+        return (T) outcome.value();
+    }
+
+    private static String idSetKey(Collection<String> platformIds) {
+        return String.join(",", new TreeSet<>(platformIds.stream().filter(Objects::nonNull).toList()));
+    }
+
+    private static Channel copy(Channel source) {
+        Channel c = new Channel();
+        c.setId(source.getId());
+        c.setPlatform(source.getPlatform());
+        c.setPlatformId(source.getPlatformId());
+        c.setHandle(source.getHandle());
+        c.setTitle(source.getTitle());
+        c.setAvatarUrl(source.getAvatarUrl());
+        c.setCountry(source.getCountry());
+        c.setCreatedAt(source.getCreatedAt());
+        c.setRefreshTier(source.getRefreshTier());
+        c.setNextRefreshAt(source.getNextRefreshAt());
+        c.setCounters(new HashMap<>(source.getCounters()));
+        return c;
+    }
+}
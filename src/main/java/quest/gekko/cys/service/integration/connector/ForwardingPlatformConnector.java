@@ -0,0 +1,44 @@
+package quest.gekko.cys.service.integration.connector;
+
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.Platform;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Base for decorators around a {@link PlatformConnector}: forwards every call to the wrapped
+ * connector, so a subclass only overrides what it changes.
+ */
+public abstract class ForwardingPlatformConnector implements PlatformConnector {
+    protected final PlatformConnector delegate;
+
+    protected ForwardingPlatformConnector(PlatformConnector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Platform platform() { return delegate.platform(); }
+
+    @Override
+    public Optional<Channel> resolveAndHydrate(String handleOrUrl) { return delegate.resolveAndHydrate(handleOrUrl); }
+
+    @Override
+    public List<Channel> search(String query, int maxResults) { return delegate.search(query, maxResults); }
+
+    @Override
+    public Map<String, Long> fetchCounters(String platformId) { return delegate.fetchCounters(platformId); }
+
+    @Override
+    public Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+        return delegate.fetchCounters(platformIds);
+    }
+
+    @Override
+    public List<Channel> hydrate(Collection<String> platformIds) { return delegate.hydrate(platformIds); }
+
+    @Override
+    public Optional<ReactivePlatformConnector> reactive() { return delegate.reactive(); }
+}
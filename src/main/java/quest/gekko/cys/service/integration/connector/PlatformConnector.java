@@ -3,6 +3,9 @@ package quest.gekko.cys.service.integration.connector;
 import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,4 +21,35 @@ public interface PlatformConnector {
 
     /** Keep your counters method as-is. */
     Map<String, Long> fetchCounters(String platformId);
+
+    /**
+     * Fetch counters for many channels at once, keyed by platformId. Channels the platform
+     * does not return are left out of the result. Connectors that support batch lookups
+     * should override this; the default falls back to one call per channel.
+     */
+    default Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String platformId : platformIds) {
+            Map<String, Long> counters = fetchCounters(platformId);
+            if (!counters.isEmpty()) result.put(platformId, counters);
+        }
+        return result;
+    }
+
+    /**
+     * Load full channel details for known platformIds, in the given order where possible.
+     * The default falls back to one resolve per id.
+     */
+    default List<Channel> hydrate(Collection<String> platformIds) {
+        List<Channel> channels = new ArrayList<>();
+        for (String platformId : platformIds) {
+            resolveAndHydrate(platformId).ifPresent(channels::add);
+        }
+        return channels;
+    }
+
+    /** The non-blocking API behind this connector, if it has one (decorators look through). */
+    default Optional<ReactivePlatformConnector> reactive() {
+        return this instanceof ReactivePlatformConnector r ? Optional.of(r) : Optional.empty();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package quest.gekko.cys.service.integration.connector;
+
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.Platform;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of {@link PlatformConnector}. Nothing happens until the returned
+ * publisher is subscribed, and no thread waits on the network while a call is in flight, so many
+ * concurrent lookups can share the WebClient event loop.
+ * <p>
+ * Quota is charged to the {@code QuotaConsumer} in the subscriber's context
+ * ({@code QuotaScope.context(..)}), or else to the scope of the thread that built the pipeline.
+ */
+public interface ReactivePlatformConnector {
+    Platform platform();
+
+    /** Resolve a single channel from a handle or URL. */
+    Mono<Optional<Channel>> resolveAndHydrateReactive(String handleOrUrl);
+
+    Flux<Channel> searchReactive(String query, int maxResults);
+
+    /** Full details for known platformIds, in as few calls as the platform allows. */
+    Flux<Channel> hydrateReactive(Collection<String> platformIds);
+
+    /** Counters keyed by platformId; channels the platform does not return are left out. */
+    Mono<Map<String, Map<String, Long>>> fetchCountersReactive(Collection<String> platformIds);
+}
@@ -0,0 +1,76 @@
+package quest.gekko.cys.service.integration.connector;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.repository.ChannelRepository;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Remembers which channels a free-text search returned, as ordered platformIds per normalised
+ * query. A repeat of the query is answered from the {@code channel} table, plus one batched
+ * {@link #hydrate} call for any result that was never stored, instead of another search.
+ */
+public class SearchCachingConnector extends ForwardingPlatformConnector {
+    // ids: results in the platform's order; requested: maxResults of the search that produced them
+    private record Entry(List<String> ids, int requested) {
+        boolean covers(int maxResults) {
+            // Fewer results than asked for means the platform had no more to give
+            return requested >= maxResults || ids.size() < requested;
+        }
+    }
+
+    private final ChannelRepository channelRepository;
+    private final Cache<String, Entry> cache;
+    private final MeterRegistry meterRegistry;
+
+    public SearchCachingConnector(PlatformConnector delegate, ChannelRepository channelRepository,
+                                  SocialProperties.SearchCache props, MeterRegistry meterRegistry) {
+        super(delegate);
+        this.channelRepository = channelRepository;
+        this.meterRegistry = meterRegistry;
+        this.cache = Caffeine.newBuilder().maximumSize(props.maxEntries()).expireAfterWrite(props.ttl()).build();
+    }
+
+    @Override
+    public List<Channel> search(String query, int maxResults) {
+        if (query == null || query.isBlank()) return List.of();
+        String key = normalize(query);
+
+        Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.covers(maxResults)) {
+            count("hit");
+            return load(cached.ids().subList(0, Math.min(maxResults, cached.ids().size())));
+        }
+
+        count("miss");
+        List<Channel> results = delegate.search(query, maxResults);
+        cache.put(key, new Entry(results.stream().map(Channel::getPlatformId).filter(Objects::nonNull).toList(), maxResults));
+        return results;
+    }
+
+    private List<Channel> load(List<String> ids) {
+        if (ids.isEmpty()) return List.of();
+        Map<String, Channel> byId = channelRepository.findByPlatformAndPlatformIdIn(platform(), ids).stream()
+                .collect(Collectors.toMap(Channel::getPlatformId, Function.identity(), (a, b) -> a));
+
+        List<String> missing = ids.stream().filter(id -> !byId.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            delegate.hydrate(missing).forEach(c -> byId.putIfAbsent(c.getPlatformId(), c));
+        }
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    static String normalize(String query) {
+        return query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("connector.search.cache", "platform", platform().name(), "result", result).increment();
+    }
+}
@@ -0,0 +1,41 @@
+package quest.gekko.cys.service.integration.connector;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Typed views of the Twitch Helix responses the connector reads.
+ */
+final class TwitchApi {
+    private TwitchApi() {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Token(@JsonProperty("access_token") String accessToken,
+                 @JsonProperty("expires_in") long expiresIn) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Page<T>(List<T> data, Long total) {
+        List<T> dataOrEmpty() { return data != null ? data : List.of(); }
+    }
+
+    // GET /helix/users
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record User(String id,
+                String login,
+                @JsonProperty("display_name") String displayName,
+                @JsonProperty("profile_image_url") String profileImageUrl) {}
+
+    // GET /helix/streams (live channels only)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Stream(@JsonProperty("user_id") String userId,
+                  @JsonProperty("viewer_count") Long viewerCount) {}
+
+    // GET /helix/search/channels
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SearchChannel(String id,
+                         @JsonProperty("broadcaster_login") String broadcasterLogin,
+                         @JsonProperty("display_name") String displayName,
+                         @JsonProperty("thumbnail_url") String thumbnailUrl) {}
+}
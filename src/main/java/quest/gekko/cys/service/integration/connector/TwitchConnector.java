@@ -0,0 +1,314 @@
+package quest.gekko.cys.service.integration.connector;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriBuilder;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.service.integration.http.OutboundGovernors;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Twitch Helix connector using an app access token (client credentials). The token is fetched
+ * once, shared by all calls and re-fetched shortly before it expires or when Helix answers 401.
+ * <p>
+ * Lookups are batched where Helix allows: users and streams take up to 100 ids per request.
+ * Follower totals only exist per broadcaster, so they are fetched at most once per UTC day and
+ * reused by the hourly refreshes in between, which then cost one streams call per 100 channels.
+ */
+@Service
+@Slf4j
+public class TwitchConnector implements PlatformConnector, ReactivePlatformConnector {
+    private final WebClient http;
+    private final SocialProperties.Twitch props;
+    private final OutboundGovernors governors;
+
+    private final AtomicReference<Mono<TwitchApi.Token>> token = new AtomicReference<>();
+    private final Cache<String, FollowerTotal> followerTotals = Caffeine.newBuilder()
+            .maximumSize(MAX_FOLLOWER_TOTALS)
+            .expireAfterWrite(Duration.ofHours(25))
+            .build();
+
+    private record FollowerTotal(long total, LocalDate fetchedOn) {}
+
+    private static final int MAX_IDS_PER_REQUEST = 100;
+    // followers calls one counters lookup may have in flight at once
+    private static final int FOLLOWER_CONCURRENCY = 8;
+    private static final int MAX_FOLLOWER_TOTALS = 200_000;
+    // refresh this long before the token's stated expiry
+    private static final Duration TOKEN_EARLY_REFRESH = Duration.ofMinutes(5);
+    private static final Pattern LOGIN = Pattern.compile("[A-Za-z0-9_]{3,25}");
+    private static final Pattern URL_LOGIN = Pattern.compile("twitch\\.tv/([A-Za-z0-9_]{3,25})(?:[/?#].*)?$");
+
+    private static final ParameterizedTypeReference<TwitchApi.Page<TwitchApi.User>> USERS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<TwitchApi.Page<TwitchApi.Stream>> STREAMS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<TwitchApi.Page<Object>> FOLLOWERS = new ParameterizedTypeReference<>() {};
+    private static final ParameterizedTypeReference<TwitchApi.Page<TwitchApi.SearchChannel>> SEARCH = new ParameterizedTypeReference<>() {};
+
+    public TwitchConnector(WebClient http, SocialProperties.Twitch props, OutboundGovernors governors) {
+        this.http = http;
+        this.props = props;
+        this.governors = governors;
+    }
+
+    @Override
+    public Platform platform() { return Platform.TWITCH; }
+
+    // ---- Blocking facade ----
+
+    @Override
+    public Optional<Channel> resolveAndHydrate(String handleOrUrl) {
+        return resolveAndHydrateReactive(handleOrUrl).blockOptional().flatMap(Function.identity());
+    }
+
+    @Override
+    public List<Channel> search(String query, int maxResults) {
+        return searchReactive(query, maxResults).collectList().blockOptional().orElse(List.of());
+    }
+
+    @Override
+    public Map<String, Long> fetchCounters(String platformId) {
+        if (platformId == null || platformId.isBlank()) return Map.of();
+        return fetchCounters(List.of(platformId)).getOrDefault(platformId, Map.of());
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+        return fetchCountersReactive(platformIds).blockOptional().orElse(Map.of());
+    }
+
+    @Override
+    public List<Channel> hydrate(Collection<String> platformIds) {
+        return hydrateReactive(platformIds).collectList().blockOptional().orElse(List.of());
+    }
+
+    // ---- Reactive API ----
+
+    @Override
+    public Mono<Optional<Channel>> resolveAndHydrateReactive(String handleOrUrl) {
+        if (!configured() || handleOrUrl == null || handleOrUrl.isBlank()) return Mono.just(Optional.empty());
+        String input = handleOrUrl.trim();
+
+        Matcher url = URL_LOGIN.matcher(input);
+        if (url.find()) return userBy("login", url.group(1));
+
+        String login = input.startsWith("@") ? input.substring(1) : input;
+        if (login.chars().allMatch(Character::isDigit)) {
+            // Stored platformIds are numeric user ids; fall back to a login of digits
+            return userBy("id", login).flatMap(u -> u.isPresent() ? Mono.just(u) : userBy("login", login));
+        }
+        if (LOGIN.matcher(login).matches()) {
+            return userBy("login", login.toLowerCase(Locale.ROOT))
+                    .flatMap(u -> u.isPresent() ? Mono.just(u) : firstSearchResult(input));
+        }
+        return firstSearchResult(input);
+    }
+
+    @Override
+    public Flux<Channel> searchReactive(String query, int maxResults) {
+        if (!configured() || query == null || query.isBlank()) return Flux.empty();
+        int capped = Math.min(Math.max(maxResults, 1), 100);
+
+        // Search results carry enough identity to map without a follow-up users call
+        return get(SEARCH, uri -> uri.path("/helix/search/channels")
+                        .queryParam("query", query)
+                        .queryParam("first", capped)
+                        .build())
+                .flatMapIterable(TwitchApi.Page::dataOrEmpty)
+                .mapNotNull(c -> c.id() == null ? null
+                        : toChannel(c.id(), c.broadcasterLogin(), c.displayName(), c.thumbnailUrl()));
+    }
+
+    @Override
+    public Flux<Channel> hydrateReactive(Collection<String> platformIds) {
+        if (!configured()) return Flux.empty();
+        return Flux.fromIterable(batches(platformIds))
+                .flatMapSequential(batch -> usersBy("id", batch), 4);
+    }
+
+    @Override
+    public Mono<Map<String, Map<String, Long>>> fetchCountersReactive(Collection<String> platformIds) {
+        if (!configured()) return Mono.just(Map.of());
+        List<List<String>> batches = batches(platformIds);
+        if (batches.isEmpty()) return Mono.just(Map.of());
+        List<String> ids = batches.stream().flatMap(List::stream).toList();
+
+        // Live viewers: one streams call per 100 ids; channels that are offline are simply absent
+        Mono<Map<String, Long>> live = Flux.fromIterable(batches)
+                .flatMap(this::liveViewers, 4)
+                .collect(HashMap::new, Map::putAll);
+
+        Mono<Map<String, Long>> followers = Mono.defer(() -> followerTotals(ids));
+
+        return Mono.zip(live, followers).map(t -> {
+            Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+            for (String id : ids) {
+                Long total = t.getT2().get(id);
+                if (total == null) continue;
+                result.put(id, Map.of("followers", total, "liveViews", t.getT1().getOrDefault(id, 0L)));
+            }
+            return result;
+        });
+    }
+
+    // ---- Helix calls ----
+
+    private Mono<Optional<Channel>> userBy(String param, String value) {
+        return usersBy(param, List.of(value)).next().map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    private Flux<Channel> usersBy(String param, List<String> values) {
+        return get(USERS, uri -> {
+                    values.forEach(v -> uri.queryParam(param, v));
+                    return uri.path("/helix/users").build();
+                })
+                .flatMapIterable(TwitchApi.Page::dataOrEmpty)
+                .mapNotNull(u -> u.id() == null ? null : toChannel(u.id(), u.login(), u.displayName(), u.profileImageUrl()));
+    }
+
+    private Mono<Map<String, Long>> liveViewers(List<String> userIds) {
+        return get(STREAMS, uri -> {
+                    userIds.forEach(id -> uri.queryParam("user_id", id));
+                    return uri.path("/helix/streams").queryParam("first", MAX_IDS_PER_REQUEST).build();
+                })
+                .map(page -> {
+                    Map<String, Long> viewers = new HashMap<>();
+                    for (TwitchApi.Stream s : page.dataOrEmpty()) {
+                        if (s.userId() != null) viewers.merge(s.userId(), s.viewerCount() != null ? s.viewerCount() : 0L, Long::sum);
+                    }
+                    return viewers;
+                });
+    }
+
+    // Today's totals from the cache; only broadcasters without one are asked for it
+    private Mono<Map<String, Long>> followerTotals(List<String> ids) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Map<String, Long> totals = new HashMap<>();
+        List<String> stale = new ArrayList<>();
+        for (String id : ids) {
+            FollowerTotal cached = followerTotals.getIfPresent(id);
+            if (cached != null && cached.fetchedOn().equals(today)) totals.put(id, cached.total());
+            else stale.add(id);
+        }
+        if (stale.isEmpty()) return Mono.just(totals);
+
+        return Flux.fromIterable(stale)
+                .flatMap(id -> followerTotal(id).map(total -> Map.entry(id, total)), FOLLOWER_CONCURRENCY)
+                .doOnNext(e -> followerTotals.put(e.getKey(), new FollowerTotal(e.getValue(), today)))
+                .collect(() -> totals, (m, e) -> m.put(e.getKey(), e.getValue()));
+    }
+
+    private Mono<Long> followerTotal(String broadcasterId) {
+        // An app token only sees the total, which is all we need
+        return get(FOLLOWERS, uri -> uri.path("/helix/channels/followers")
+                        .queryParam("broadcaster_id", broadcasterId)
+                        .queryParam("first", 1)
+                        .build())
+                .mapNotNull(TwitchApi.Page::total)
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    // Deleted or banned broadcasters answer 400/404; leave them out of this batch
+                    if (e.getStatusCode().is4xxClientError() && e.getStatusCode().value() != 429) {
+                        log.debug("No follower total for Twitch broadcaster {}: {}", broadcasterId, e.getStatusCode());
+                        return Mono.empty();
+                    }
+                    return Mono.error(e);
+                });
+    }
+
+    private <T> Mono<T> get(ParameterizedTypeReference<T> type, Function<UriBuilder, URI> uri) {
+        return call(type, uri).onErrorResume(WebClientResponseException.Unauthorized.class, e -> {
+            // Token revoked or expired early: fetch a new one and try once more
+            token.set(null);
+            return call(type, uri);
+        });
+    }
+
+    private <T> Mono<T> call(ParameterizedTypeReference<T> type, Function<UriBuilder, URI> uri) {
+        return accessToken().flatMap(accessToken -> governors.forUpstream("twitch").guard(http.get()
+                .uri(b -> uri.apply(b.scheme("https").host("api.twitch.tv")))
+                .header("Client-Id", props.clientId())
+                .headers(h -> h.setBearerAuth(accessToken))
+                .retrieve()
+                .bodyToMono(type)));
+    }
+
+    private Mono<String> accessToken() {
+        Mono<TwitchApi.Token> current = token.get();
+        if (current == null) {
+            // Cached until shortly before expiry, after which the next subscriber fetches a new one
+            Mono<TwitchApi.Token> fresh = requestToken().cache(
+                    t -> maxOf(Duration.ZERO, Duration.ofSeconds(t.expiresIn()).minus(TOKEN_EARLY_REFRESH)),
+                    error -> Duration.ZERO,
+                    () -> Duration.ZERO);
+            token.compareAndSet(null, fresh);
+            current = token.get();
+        }
+        return current.map(TwitchApi.Token::accessToken);
+    }
+
+    private Mono<TwitchApi.Token> requestToken() {
+        return governors.forUpstream("twitch").guard(http.post()
+                        .uri(b -> b.scheme("https").host("id.twitch.tv").path("/oauth2/token").build())
+                        .body(BodyInserters.fromFormData("client_id", props.clientId())
+                                .with("client_secret", props.clientSecret())
+                                .with("grant_type", "client_credentials"))
+                        .retrieve()
+                        .bodyToMono(TwitchApi.Token.class))
+                .doOnNext(t -> log.info("Fetched Twitch app access token, valid for {}s", t.expiresIn()));
+    }
+
+    // ---- Helpers ----
+
+    private Mono<Optional<Channel>> firstSearchResult(String query) {
+        return searchReactive(query, 1).next().map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    private boolean configured() {
+        return props.clientId() != null && !props.clientId().isBlank()
+                && props.clientSecret() != null && !props.clientSecret().isBlank();
+    }
+
+    private static Duration maxOf(Duration a, Duration b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    private static List<List<String>> batches(Collection<String> platformIds) {
+        List<String> ids = platformIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .distinct()
+                .toList();
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_REQUEST) {
+            batches.add(ids.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, ids.size())));
+        }
+        return batches;
+    }
+
+    private static Channel toChannel(String id, String login, String displayName, String avatarUrl) {
+        Channel c = new Channel();
+        c.setPlatform(Platform.TWITCH);
+        c.setPlatformId(id);
+        c.setHandle(login != null && !login.isBlank() ? "@" + login : "@" + id);
+        c.setTitle(displayName != null && !displayName.isBlank() ? displayName : login);
+        c.setAvatarUrl(avatarUrl);
+        return c;
+    }
+}
@@ -0,0 +1,57 @@
+package quest.gekko.cys.service.integration.connector;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Typed views of the YouTube Data API v3 responses the connector reads, plus the {@code fields=}
+ * masks that trim each response to what the call site actually maps. Jackson decodes these
+ * straight from the response buffers; anything outside the records is skipped, not materialised.
+ */
+final class YouTubeApi {
+    private YouTubeApi() {}
+
+    // channels.list for counters: ids and three statistics, nothing else
+    static final String COUNTER_FIELDS = "items(id,statistics(subscriberCount,viewCount,videoCount))";
+
+    // channels.list for hydration: identity fields only (description feeds the handle fallback)
+    static final String CHANNEL_FIELDS =
+            "items(id,snippet(title,description,customUrl,country,thumbnails(default/url,medium/url,high/url)))";
+
+    // search.list: only the matched channel ids; details come from one channels.list call
+    static final String SEARCH_FIELDS = "items(id/channelId)";
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ChannelListResponse(List<ChannelItem> items) {
+        List<ChannelItem> itemsOrEmpty() { return items != null ? items : List.of(); }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record ChannelItem(String id, Snippet snippet, Statistics statistics) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Snippet(String title, String description, String customUrl, String country, Thumbnails thumbnails) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Thumbnails(@JsonProperty("default") Thumbnail fallback, Thumbnail medium, Thumbnail high) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Thumbnail(String url) {}
+
+    // The API sends counts as JSON strings; Jackson coerces them to Long
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Statistics(Long subscriberCount, Long viewCount, Long videoCount) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SearchListResponse(List<SearchItem> items) {
+        List<SearchItem> itemsOrEmpty() { return items != null ? items : List.of(); }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SearchItem(SearchId id) {}
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record SearchId(String channelId) {}
+}
@@ -4,31 +4,76 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriBuilder;
 import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
-
+import quest.gekko.cys.service.integration.http.OutboundGovernors;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaLedger;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
+import quest.gekko.cys.service.integration.quota.YouTubeEndpoint;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
 import java.util.*;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Service
 @RequiredArgsConstructor
-public class YouTubeConnector implements PlatformConnector {
+public class YouTubeConnector implements PlatformConnector, ReactivePlatformConnector {
     private final WebClient http;
+    private final QuotaLedger quotaLedger;
+    private final OutboundGovernors governors;
 
     @Value("${social.youtube.api-key:}")
     String apiKey;
 
     private static final Pattern HANDLE_IN_DESC = Pattern.compile("@[A-Za-z0-9._]{3,30}");
     private static final Pattern URL_HANDLE = Pattern.compile("/@([A-Za-z0-9._]{3,30})(?:[/?#].*)?$");
+    private static final int MAX_IDS_PER_REQUEST = 50;
+    // channels.list calls one counters lookup may have in flight at once
+    private static final int BATCH_CONCURRENCY = 4;
 
     @Override
     public Platform platform() { return Platform.YOUTUBE; }
 
+    // ---- Blocking facade: the reactive pipelines below, awaited on the caller's thread ----
+
     @Override
     public Optional<Channel> resolveAndHydrate(String handleOrUrl) {
-        if (apiKey == null || apiKey.isBlank()) return Optional.empty();
-        if (handleOrUrl == null || handleOrUrl.isBlank()) return Optional.empty();
+        return resolveAndHydrateReactive(handleOrUrl).blockOptional().flatMap(Function.identity());
+    }
+
+    @Override
+    public Map<String, Long> fetchCounters(String platformId) {
+        if (platformId == null || platformId.isBlank()) return Map.of();
+        return fetchCounters(List.of(platformId)).getOrDefault(platformId, Map.of());
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+        return fetchCountersReactive(platformIds).blockOptional().orElse(Map.of());
+    }
+
+    @Override
+    public List<Channel> search(String query, int maxResults) {
+        return searchReactive(query, maxResults).collectList().blockOptional().orElse(List.of());
+    }
+
+    @Override
+    public List<Channel> hydrate(Collection<String> platformIds) {
+        return hydrateReactive(platformIds).collectList().blockOptional().orElse(List.of());
+    }
+
+    // ---- Reactive API ----
+
+    @Override
+    public Mono<Optional<Channel>> resolveAndHydrateReactive(String handleOrUrl) {
+        if (apiKey == null || apiKey.isBlank()) return Mono.just(Optional.empty());
+        if (handleOrUrl == null || handleOrUrl.isBlank()) return Mono.just(Optional.empty());
 
         // 1) If input is a handle, use forHandle (KEEP '@')
         if (handleOrUrl.startsWith("@")) {
@@ -45,193 +90,208 @@ public class YouTubeConnector implements PlatformConnector {
 
             Optional<String> vanity = extractVanityFromUserOrC(handleOrUrl);
             if (vanity.isPresent()) {
-                // Try as a handle first (legacy vanity names often equal handle)
-                Optional<Channel> ch = fetchByHandle("@" + vanity.get());
-                if (ch.isPresent()) return ch;
-                // Fallback: search by vanity text
-                return searchAndHydrate(vanity.get(), 1).stream().findFirst();
+                // Try as a handle first (legacy vanity names often equal handle),
+                // then fall back to searching by the vanity text
+                return fetchByHandle("@" + vanity.get())
+                        .flatMap(ch -> ch.isPresent() ? Mono.just(ch) : firstSearchResult(vanity.get()));
             }
             // last resort: treat the whole URL as a search query
         }
 
         // 3) Otherwise, search by text and hydrate first result
-        return searchAndHydrate(handleOrUrl, 1).stream().findFirst();
+        return firstSearchResult(handleOrUrl);
     }
 
-    private Optional<Channel> fetchByHandle(String handleWithAt) {
-        Map<?, ?> chan = http.get()
-                .uri(uri -> uri.scheme("https").host("www.googleapis.com").path("/youtube/v3/channels")
-                        .queryParam("part", "snippet,statistics")
-                        .queryParam("forHandle", handleWithAt) // must include '@'
-                        .queryParam("key", apiKey)
-                        .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        List<Map<String, Object>> items = safeItems(chan);
-        if (items.isEmpty()) return Optional.empty();
-        return Optional.of(mapChannel(items.getFirst()));
+    @Override
+    public Flux<Channel> searchReactive(String query, int maxResults) {
+        return searchAndHydrate(query, maxResults);
     }
 
-    private Optional<Channel> hydrateById(String channelId) {
-        if (channelId == null || channelId.isBlank()) return Optional.empty();
+    @Override
+    public Flux<Channel> hydrateReactive(Collection<String> platformIds) {
+        if (apiKey == null || apiKey.isBlank()) return Flux.empty();
 
-        Map<?, ?> chan = http.get()
-                .uri(uri -> uri.scheme("https").host("www.googleapis.com").path("/youtube/v3/channels")
-                        .queryParam("part", "snippet,statistics")
-                        .queryParam("id", channelId)
-                        .queryParam("key", apiKey)
-                        .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
+        List<String> ids = platformIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) return Flux.empty();
 
-        List<Map<String, Object>> items = safeItems(chan);
-        if (items.isEmpty()) return Optional.empty();
-        return Optional.of(mapChannel(items.get(0)));
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_REQUEST) {
+            batches.add(ids.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, ids.size())));
+        }
+        return Flux.fromIterable(batches).flatMapSequential(this::hydrateBatch, BATCH_CONCURRENCY);
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    public Map<String, Long> fetchCounters(String platformId) {
-        if (apiKey == null || apiKey.isBlank()) return Map.of();
-        if (platformId == null || platformId.isBlank()) return Map.of();
+    public Mono<Map<String, Map<String, Long>>> fetchCountersReactive(Collection<String> platformIds) {
+        if (apiKey == null || apiKey.isBlank()) return Mono.just(Map.of());
 
-        Map<?, ?> resp = http.get()
-                .uri(uri -> uri.scheme("https").host("www.googleapis.com").path("/youtube/v3/channels")
-                        .queryParam("part", "statistics")
-                        .queryParam("id", platformId)
+        List<String> ids = platformIds.stream()
+                .filter(id -> id != null && !id.isBlank())
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) return Mono.just(Map.of());
+
+        // channels.list accepts up to 50 ids per call and costs 1 quota unit regardless
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_REQUEST) {
+            batches.add(ids.subList(i, Math.min(i + MAX_IDS_PER_REQUEST, ids.size())));
+        }
+        return Flux.fromIterable(batches)
+                .flatMapSequential(this::fetchCountersBatch, BATCH_CONCURRENCY)
+                .collect(LinkedHashMap::new, Map::putAll);
+    }
+
+    private Mono<Optional<Channel>> fetchByHandle(String handleWithAt) {
+        return get(YouTubeEndpoint.CHANNELS_LIST, YouTubeApi.ChannelListResponse.class, uri -> uri.path("/youtube/v3/channels")
+                        .queryParam("part", "snippet")
+                        .queryParam("forHandle", handleWithAt) // must include '@'
+                        .queryParam("fields", YouTubeApi.CHANNEL_FIELDS)
                         .queryParam("key", apiKey)
                         .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        if (resp == null) return Map.of();
-        List<Map<String, Object>> items = safeItems(resp);
-        if (items.isEmpty()) return Map.of();
+                .map(chan -> chan.itemsOrEmpty().stream().findFirst().map(this::mapChannel));
+    }
 
-        Map<String, Object> stats = (Map<String, Object>) items.get(0).get("statistics");
-        if (stats == null) return Map.of();
+    private Mono<Optional<Channel>> hydrateById(String channelId) {
+        if (channelId == null || channelId.isBlank()) return Mono.just(Optional.empty());
 
-        long subs = parseLong(stats.get("subscriberCount"));
-        long views = parseLong(stats.get("viewCount"));
-        long videos = parseLong(stats.get("videoCount"));
-        return Map.of("subscribers", subs, "views", views, "videos", videos);
+        return get(YouTubeEndpoint.CHANNELS_LIST, YouTubeApi.ChannelListResponse.class, uri -> uri.path("/youtube/v3/channels")
+                        .queryParam("part", "snippet")
+                        .queryParam("id", channelId)
+                        .queryParam("fields", YouTubeApi.CHANNEL_FIELDS)
+                        .queryParam("key", apiKey)
+                        .build())
+                .map(chan -> chan.itemsOrEmpty().stream().findFirst().map(this::mapChannel));
     }
 
-    @Override
-    @SuppressWarnings("unchecked")
-    public List<Channel> search(String query, int maxResults) {
-        return searchAndHydrate(query, maxResults);
+    private Mono<Map<String, Map<String, Long>>> fetchCountersBatch(List<String> batch) {
+        String idParam = String.join(",", batch);
+        return get(YouTubeEndpoint.CHANNELS_LIST, YouTubeApi.ChannelListResponse.class, uri -> uri.path("/youtube/v3/channels")
+                        .queryParam("part", "statistics")
+                        .queryParam("id", idParam)
+                        .queryParam("maxResults", String.valueOf(MAX_IDS_PER_REQUEST))
+                        .queryParam("fields", YouTubeApi.COUNTER_FIELDS)
+                        .queryParam("key", apiKey)
+                        .build())
+                .map(resp -> {
+                    Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+                    for (YouTubeApi.ChannelItem item : resp.itemsOrEmpty()) {
+                        var stats = item.statistics();
+                        if (item.id() == null || stats == null) continue;
+
+                        result.put(item.id(), Map.of(
+                                "subscribers", orZero(stats.subscriberCount()),
+                                "views", orZero(stats.viewCount()),
+                                "videos", orZero(stats.videoCount())));
+                    }
+                    return result;
+                });
     }
 
     // ---- Helpers ----
 
-    @SuppressWarnings("unchecked")
-    private List<Channel> searchAndHydrate(String query, int maxResults) {
-        if (apiKey == null || apiKey.isBlank()) return List.of();
-        if (query == null || query.isBlank()) return List.of();
+    private Mono<Optional<Channel>> firstSearchResult(String query) {
+        return searchAndHydrate(query, 1).next().map(Optional::of).defaultIfEmpty(Optional.empty());
+    }
+
+    private Flux<Channel> searchAndHydrate(String query, int maxResults) {
+        if (apiKey == null || apiKey.isBlank()) return Flux.empty();
+        if (query == null || query.isBlank()) return Flux.empty();
 
         int capped = Math.min(Math.max(maxResults, 1), 25);
 
-        Map<?, ?> search = http.get()
-                .uri(uri -> uri.scheme("https").host("www.googleapis.com").path("/youtube/v3/search")
-                        .queryParam("part", "snippet")
+        // search.list costs 100 units, the follow-up channels.list 1 more
+        return get(YouTubeEndpoint.SEARCH_LIST, YouTubeApi.SearchListResponse.class, uri -> uri.path("/youtube/v3/search")
+                        .queryParam("part", "id")
                         .queryParam("type", "channel")
                         .queryParam("q", query)
                         .queryParam("maxResults", String.valueOf(capped))
+                        .queryParam("fields", YouTubeApi.SEARCH_FIELDS)
                         .queryParam("key", apiKey)
                         .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        List<Map<String, Object>> items = (List<Map<String, Object>>) (search != null ? search.get("items") : List.of());
-        if (items == null || items.isEmpty()) return List.of();
-
-        // Extract channel IDs
-        List<String> channelIds = items.stream()
-                .map(it -> (Map<String, Object>) it.get("id"))
-                .filter(Objects::nonNull)
-                .map(idObj -> (String) idObj.get("channelId"))
-                .filter(id -> id != null && !id.isBlank())
-                .toList();
-
-        if (channelIds.isEmpty()) return List.of();
+                // Extract channel IDs
+                .map(search -> search.itemsOrEmpty().stream()
+                        .map(YouTubeApi.SearchItem::id)
+                        .filter(Objects::nonNull)
+                        .map(YouTubeApi.SearchId::channelId)
+                        .filter(id -> id != null && !id.isBlank())
+                        .toList())
+                .filter(channelIds -> !channelIds.isEmpty())
+                // Batch fetch details (up to 50)
+                .flatMapMany(this::hydrateBatch);
+    }
 
-        // Batch fetch details (up to 50)
-        String idParam = String.join(",", channelIds);
-        Map<?, ?> channelsResponse = http.get()
-                .uri(uri -> uri.scheme("https").host("www.googleapis.com").path("/youtube/v3/channels")
-                        .queryParam("part", "snippet,statistics")
-                        .queryParam("id", idParam)
+    // One channels.list call for up to 50 ids
+    private Flux<Channel> hydrateBatch(List<String> channelIds) {
+        return get(YouTubeEndpoint.CHANNELS_LIST, YouTubeApi.ChannelListResponse.class, uri -> uri.path("/youtube/v3/channels")
+                        .queryParam("part", "snippet")
+                        .queryParam("id", String.join(",", channelIds))
+                        .queryParam("fields", YouTubeApi.CHANNEL_FIELDS)
                         .queryParam("key", apiKey)
                         .build())
-                .retrieve()
-                .bodyToMono(Map.class)
-                .block();
-
-        List<Map<String, Object>> channelItems =
-                (List<Map<String, Object>>) (channelsResponse != null ? channelsResponse.get("items") : List.of());
-        if (channelItems == null || channelItems.isEmpty()) return List.of();
+                .flatMapIterable(YouTubeApi.ChannelListResponse::itemsOrEmpty)
+                .mapNotNull(this::mapChannel)
+                .filter(ch -> ch != null && ch.getTitle() != null && !ch.getTitle().isBlank());
+    }
 
-        return channelItems.stream()
-                .map(this::mapChannel)
-                .filter(ch -> ch != null && ch.getTitle() != null && !ch.getTitle().isBlank())
-                .toList();
+    /**
+     * One Data API GET. The quota unit is taken once the governor has admitted the call, charged
+     * to the consumer in the subscriber context or else to the scope active while assembling;
+     * calls the governor rejects cost nothing and retries are not charged again.
+     */
+    private <T> Mono<T> get(YouTubeEndpoint endpoint, Class<T> type, Function<UriBuilder, URI> uri) {
+        QuotaConsumer assembledIn = QuotaScope.current();
+        return Mono.deferContextual(ctx -> {
+            QuotaConsumer consumer = QuotaScope.from(ctx, assembledIn);
+            return governors.forUpstream("youtube").guard(http.get()
+                    .uri(b -> uri.apply(b.scheme("https").host("www.googleapis.com")))
+                    .retrieve()
+                    .bodyToMono(type), () -> quotaLedger.acquire(consumer, endpoint));
+        });
     }
 
-    @SuppressWarnings("unchecked")
-    private Channel mapChannel(Map<String, Object> item) {
+    private Channel mapChannel(YouTubeApi.ChannelItem item) {
         if (item == null) return null;
 
-        Map<String, Object> snip = (Map<String, Object>) item.get("snippet");
+        YouTubeApi.Snippet snip = item.snippet();
         if (snip == null) return null;
 
-        // id can be String (channels.list) or Map (search.list)
-        String id = null;
-        Object idObj = item.get("id");
-        if (idObj instanceof String) {
-            id = (String) idObj;
-        } else if (idObj instanceof Map) {
-            id = (String) ((Map<String, Object>) idObj).get("channelId");
-        }
+        String id = item.id();
 
         Channel c = new Channel();
         c.setPlatform(Platform.YOUTUBE);
         if (id != null) c.setPlatformId(id);
-        c.setTitle((String) snip.getOrDefault("title", ""));
+        c.setTitle(snip.title() != null ? snip.title() : "");
 
         // Handle
         c.setHandle(determineChannelHandle(snip, id));
 
         // Avatar: prefer high -> medium -> default
-        Map<String, Map<String, String>> thumbs =
-                (Map<String, Map<String, String>>) snip.get("thumbnails");
+        YouTubeApi.Thumbnails thumbs = snip.thumbnails();
         if (thumbs != null) {
-            Map<String, String> best = thumbs.get("high");
-            if (best == null) best = thumbs.get("medium");
-            if (best == null) best = thumbs.get("default");
-            if (best != null) c.setAvatarUrl(best.get("url"));
+            YouTubeApi.Thumbnail best = thumbs.high();
+            if (best == null) best = thumbs.medium();
+            if (best == null) best = thumbs.fallback();
+            if (best != null) c.setAvatarUrl(best.url());
         }
 
-        c.setCountry((String) snip.getOrDefault("country", null));
+        c.setCountry(snip.country());
         return c;
     }
 
-    private String determineChannelHandle(Map<String, Object> snippet, String channelId) {
+    private String determineChannelHandle(YouTubeApi.Snippet snippet, String channelId) {
         // 1) Prefer snippet.customUrl (can be "@name", "name", or a URL)
-        Object raw = snippet != null ? snippet.get("customUrl") : null;
+        String raw = snippet != null ? snippet.customUrl() : null;
         if (raw != null) {
-            String cu = raw.toString().trim();
+            String cu = raw.trim();
             String handle = normalizeCustomUrlToHandle(cu);
             if (handle != null) return handle;
         }
 
         // 2) Look for @handle inside description
-        String description = snippet != null ? (String) snippet.get("description") : null;
+        String description = snippet != null ? snippet.description() : null;
         if (description != null) {
             Matcher m = HANDLE_IN_DESC.matcher(description);
             if (m.find()) return m.group();
@@ -304,21 +364,7 @@ public class YouTubeConnector implements PlatformConnector {
         return vanity.isBlank() ? Optional.empty() : Optional.of(vanity);
     }
 
-    @SuppressWarnings("unchecked")
-    private static List<Map<String, Object>> safeItems(Map<?, ?> obj) {
-        if (obj == null) return List.of();
-        Object itemsObj = obj.get("items");
-        if (!(itemsObj instanceof List<?> list)) return List.of();
-        return (List<Map<String, Object>>) (List<?>) list;
-    }
-
-    private static long parseLong(Object o) {
-        if (o == null) return 0L;
-        if (o instanceof Number n) return n.longValue();
-        try {
-            return Long.parseLong(o.toString());
-        } catch (NumberFormatException e) {
-            return 0L;
-        }
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 }
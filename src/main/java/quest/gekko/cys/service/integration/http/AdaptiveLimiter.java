@@ -0,0 +1,127 @@
+package quest.gekko.cys.service.integration.http;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * AIMD concurrency limit: every fast success raises the limit by {@code 1/limit} (about +1 per
+ * limit's worth of calls), a slow call lowers it by 10%, and an overload signal from the
+ * upstream (429, rate-limit 403) halves it. Callers over the limit wait in a bounded queue
+ * without holding a thread.
+ */
+final class AdaptiveLimiter {
+    enum Outcome { SUCCESS, OVERLOAD, FAILURE, CANCELLED }
+
+    static final class LimitExceededException extends RuntimeException {
+        LimitExceededException(String upstream) {
+            super("Too many calls waiting for " + upstream);
+        }
+    }
+
+    private static final class Waiter {
+        final MonoSink<Permit> sink;
+        Permit permit; // set under the lock when granted
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+    }
+
+    /** One in-flight slot; releasing it twice is a no-op. */
+    final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release(Outcome outcome, long latencyNanos) {
+            if (released.compareAndSet(false, true)) AdaptiveLimiter.this.release(outcome, latencyNanos);
+        }
+    }
+
+    private final String upstream;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long latencyTargetNanos;
+    private final int maxQueued;
+
+    private final Object lock = new Object();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+
+    AdaptiveLimiter(String upstream, int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, int maxQueued) {
+        this.upstream = upstream;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.maxQueued = maxQueued;
+    }
+
+    Mono<Permit> acquire() {
+        return Mono.create(sink -> {
+            Permit granted = null;
+            synchronized (lock) {
+                if (inFlight < (int) limit) {
+                    inFlight++;
+                    granted = new Permit();
+                } else if (waiters.size() < maxQueued) {
+                    Waiter waiter = new Waiter(sink);
+                    waiters.addLast(waiter);
+                    sink.onCancel(() -> cancelWaiter(waiter));
+                } else {
+                    sink.error(new LimitExceededException(upstream));
+                    return;
+                }
+            }
+            if (granted != null) sink.success(granted);
+        });
+    }
+
+    int limit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+
+    int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    private void cancelWaiter(Waiter waiter) {
+        Permit orphaned;
+        synchronized (lock) {
+            if (waiters.remove(waiter)) return;
+            orphaned = waiter.permit;
+        }
+        // Cancelled between being granted and receiving the permit: hand the slot back
+        if (orphaned != null) orphaned.release(Outcome.CANCELLED, 0);
+    }
+
+    private void release(Outcome outcome, long latencyNanos) {
+        List<Waiter> toGrant = new ArrayList<>();
+        synchronized (lock) {
+            inFlight--;
+            switch (outcome) {
+                case SUCCESS -> limit = latencyNanos > latencyTargetNanos
+                        ? Math.max(minLimit, limit * 0.9)
+                        : Math.min(maxLimit, limit + 1.0 / limit);
+                case OVERLOAD -> limit = Math.max(minLimit, limit * 0.5);
+                case FAILURE, CANCELLED -> { }
+            }
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                inFlight++;
+                Waiter waiter = waiters.pollFirst();
+                waiter.permit = new Permit();
+                toGrant.add(waiter);
+            }
+        }
+        toGrant.forEach(w -> w.sink.success(w.permit));
+    }
+}
@@ -0,0 +1,110 @@
+package quest.gekko.cys.service.integration.http;
+
+import java.time.Duration;
+
+/**
+ * Count-based circuit breaker. Opens when at least {@code failureRate} of the last
+ * {@code window} calls failed (given {@code minCalls}), fails fast while open, then lets a
+ * single probe through: its success closes the breaker, its failure re-opens it.
+ * <p>
+ * Every admitted call carries a {@link Pass} from the state it was admitted in, so a slow call
+ * from before the breaker opened cannot settle the probe or count towards a later window.
+ */
+final class CircuitBreaker {
+    enum State { CLOSED, HALF_OPEN, OPEN }
+
+    static final class CircuitOpenException extends RuntimeException {
+        CircuitOpenException(String upstream) {
+            super(upstream + " circuit breaker is open");
+        }
+    }
+
+    /** Admission of one call: the generation it was let through in, and whether it is the probe. */
+    record Pass(long generation, boolean probe) {}
+
+    private final boolean[] outcomes; // ring buffer, true = failure
+    private final int minCalls;
+    private final double failureRate;
+    private final long openForNanos;
+
+    private State state = State.CLOSED;
+    // Bumped on every state change, so passes from an earlier state are recognised as stale
+    private long generation;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int window, int minCalls, double failureRate, Duration openFor) {
+        this.outcomes = new boolean[Math.max(1, window)];
+        this.minCalls = Math.min(minCalls, outcomes.length);
+        this.failureRate = failureRate;
+        this.openForNanos = openFor.toNanos();
+    }
+
+    /** @return the call's pass, or null if the breaker rejects it */
+    synchronized Pass tryPass() {
+        return switch (state) {
+            case CLOSED -> new Pass(generation, false);
+            case OPEN -> {
+                if (System.nanoTime() - openedAt < openForNanos) yield null;
+                state = State.HALF_OPEN;
+                generation++;
+                probeInFlight = true;
+                yield new Pass(generation, true);
+            }
+            case HALF_OPEN -> {
+                if (probeInFlight) yield null;
+                probeInFlight = true;
+                yield new Pass(generation, true);
+            }
+        };
+    }
+
+    synchronized void record(Pass pass, boolean failure) {
+        if (pass.generation() != generation) return;
+        if (pass.probe()) {
+            if (state != State.HALF_OPEN) return;
+            probeInFlight = false;
+            if (failure) open();
+            else reset();
+            return;
+        }
+        if (state != State.CLOSED) return;
+
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) failures--;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) failures++;
+        next = (next + 1) % outcomes.length;
+
+        if (recorded >= minCalls && failures >= failureRate * recorded) open();
+    }
+
+    /** A call that ended without a verdict (cancelled, rejected upstream of the call). */
+    synchronized void release(Pass pass) {
+        if (pass.probe() && pass.generation() == generation && state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        generation++;
+        openedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        state = State.CLOSED;
+        generation++;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,104 @@
+package quest.gekko.cys.service.integration.http;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+/**
+ * Conditional GETs for the YouTube Data API. A 200 with an ETag is remembered by URL (API key
+ * stripped); the next request for that URL sends {@code If-None-Match}, and a 304 is answered
+ * from the remembered body, so unchanged channel resources are not downloaded again.
+ * <p>
+ * The cache holds raw response bytes rather than decoded objects, since a filter sits below
+ * the codecs; it is bounded by total bytes, not entry count.
+ */
+@Component
+@Slf4j
+public class ETagCacheFilter implements ExchangeFilterFunction {
+    private static final String HOST = "www.googleapis.com";
+
+    private record Entry(String etag, MediaType contentType, byte[] body) {}
+
+    private final boolean enabled;
+    private final Cache<String, Entry> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    public ETagCacheFilter(SocialProperties.YouTubeETagCache props, MeterRegistry meterRegistry) {
+        this.enabled = props.enabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(props.maxBytes())
+                .weigher((String key, Entry e) -> key.length() + e.body().length)
+                .expireAfterWrite(props.ttl())
+                .build();
+        this.hits = meterRegistry.counter("youtube.etag.requests", "result", "hit");
+        this.misses = meterRegistry.counter("youtube.etag.requests", "result", "miss");
+        this.bytesSaved = meterRegistry.counter("youtube.etag.bytes.saved");
+        Gauge.builder("youtube.etag.cache.entries", cache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!enabled || request.method() != HttpMethod.GET || !HOST.equals(request.url().getHost())) {
+            return next.exchange(request);
+        }
+
+        String key = cacheKey(request.url());
+        Entry cached = cache.getIfPresent(key);
+        ClientRequest outgoing = cached == null ? request
+                : ClientRequest.from(request).header(HttpHeaders.IF_NONE_MATCH, cached.etag()).build();
+
+        return next.exchange(outgoing).flatMap(response -> {
+            if (cached != null && response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                hits.increment();
+                bytesSaved.increment(cached.body().length);
+                return response.releaseBody().thenReturn(replay(response, cached));
+            }
+
+            misses.increment();
+            String etag = response.headers().asHttpHeaders().getETag();
+            if (response.statusCode().value() != HttpStatus.OK.value() || etag == null) {
+                return Mono.just(response);
+            }
+            MediaType contentType = response.headers().contentType().orElse(MediaType.APPLICATION_JSON);
+            return response.bodyToMono(byte[].class)
+                    .defaultIfEmpty(new byte[0])
+                    .map(body -> {
+                        cache.put(key, new Entry(etag, contentType, body));
+                        return response.mutate().body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))).build();
+                    });
+        });
+    }
+
+    private static ClientResponse replay(ClientResponse notModified, Entry cached) {
+        return notModified.mutate()
+                .statusCode(HttpStatus.OK)
+                .headers(h -> h.setContentType(cached.contentType()))
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(cached.body())))
+                .build();
+    }
+
+    private static String cacheKey(URI url) {
+        return UriComponentsBuilder.fromUri(url).replaceQueryParam("key").build().toUriString();
+    }
+}
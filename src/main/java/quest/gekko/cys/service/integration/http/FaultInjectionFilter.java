@@ -0,0 +1,147 @@
+package quest.gekko.cys.service.integration.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Injects latency, 5xx errors, quota errors and stalled connections into outbound API calls, per
+ * endpoint, so retry, limiter and breaker behaviour can be checked against a misbehaving upstream.
+ * Rules come from {@code social.faults.rules} and can be replaced at runtime; the filter does
+ * nothing unless {@code social.faults.enabled} arms it.
+ * <p>
+ * It sits below the ETag cache and above record/replay, so injected faults hit replayed traffic
+ * exactly as they would hit the real API.
+ */
+@Component
+@Slf4j
+public class FaultInjectionFilter implements ExchangeFilterFunction {
+    public static final String ANY_ENDPOINT = "*";
+
+    private static final String YOUTUBE_HOST = "www.googleapis.com";
+    // z-score of the 99th percentile of a standard normal
+    private static final double Z_99 = 2.326;
+    private static final byte[] QUOTA_EXCEEDED = """
+            {"error":{"code":403,"message":"Injected fault: quota exceeded",\
+            "errors":[{"domain":"youtube.quota","reason":"quotaExceeded"}]}}""".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UNAVAILABLE = """
+            {"error":{"code":503,"message":"Injected fault: backend unavailable"}}""".getBytes(StandardCharsets.UTF_8);
+
+    private final boolean armed;
+    private final Map<String, SocialProperties.FaultRule> rules = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public FaultInjectionFilter(SocialProperties.Faults props, MeterRegistry meterRegistry) {
+        this.armed = props.enabled();
+        this.meterRegistry = meterRegistry;
+        if (armed) {
+            rules.putAll(props.rules());
+            log.warn("Fault injection is armed for outbound API calls; rules: {}", rules);
+        }
+    }
+
+    public boolean armed() {
+        return armed;
+    }
+
+    public Map<String, SocialProperties.FaultRule> rules() {
+        return new TreeMap<>(rules);
+    }
+
+    /** Replace the rule for one endpoint, or for every endpoint without its own with {@link #ANY_ENDPOINT}. */
+    public void setRule(String endpoint, SocialProperties.FaultRule rule) {
+        if (!armed) throw new IllegalStateException("Fault injection is not enabled (social.faults.enabled)");
+        double total = rule.errorRate() + rule.quotaRate() + rule.stallRate();
+        if (rule.errorRate() < 0 || rule.quotaRate() < 0 || rule.stallRate() < 0 || total > 1) {
+            throw new IllegalArgumentException("Fault rates must be non-negative and sum to at most 1");
+        }
+        rules.put(endpoint, rule);
+        log.warn("Fault rule for {} set to {}", endpoint, rule);
+    }
+
+    public void clearRule(String endpoint) {
+        rules.remove(endpoint);
+    }
+
+    public void clearRules() {
+        rules.clear();
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (!armed || rules.isEmpty()) return next.exchange(request);
+
+        String endpoint = endpoint(request);
+        SocialProperties.FaultRule rule = rules.getOrDefault(endpoint, rules.get(ANY_ENDPOINT));
+        if (rule == null) return next.exchange(request);
+
+        Duration latency = latency(rule);
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < rule.stallRate()) {
+            injected(endpoint, "stall");
+            return Mono.never();
+        }
+        roll -= rule.stallRate();
+        if (roll < rule.quotaRate()) {
+            injected(endpoint, "quota");
+            return Mono.delay(latency).thenReturn(quotaError(request));
+        }
+        roll -= rule.quotaRate();
+        if (roll < rule.errorRate()) {
+            injected(endpoint, "error");
+            return Mono.delay(latency).thenReturn(response(HttpStatus.SERVICE_UNAVAILABLE, UNAVAILABLE));
+        }
+        if (latency.isZero()) return next.exchange(request);
+        injected(endpoint, "latency");
+        return Mono.delay(latency).then(next.exchange(request));
+    }
+
+    private static String endpoint(ClientRequest request) {
+        String path = request.url().getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static Duration latency(SocialProperties.FaultRule rule) {
+        long median = rule.latencyMedian().toNanos();
+        long p99 = rule.latencyP99().toNanos();
+        if (median <= 0 || p99 <= median) return rule.latencyMedian();
+        double sigma = Math.log((double) p99 / median) / Z_99;
+        double sample = median * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+        return Duration.ofNanos((long) sample);
+    }
+
+    private static ClientResponse quotaError(ClientRequest request) {
+        if (YOUTUBE_HOST.equals(request.url().getHost())) return response(HttpStatus.FORBIDDEN, QUOTA_EXCEEDED);
+        ClientResponse tooMany = response(HttpStatus.TOO_MANY_REQUESTS, new byte[0]);
+        return tooMany.mutate().header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
+
+    private void injected(String endpoint, String fault) {
+        meterRegistry.counter("faults.injected", "endpoint", endpoint, "fault", fault).increment();
+    }
+
+    private static ClientResponse response(HttpStatus status, byte[] body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                .build();
+    }
+}
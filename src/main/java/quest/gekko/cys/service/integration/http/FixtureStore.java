@@ -0,0 +1,133 @@
+package quest.gekko.cys.service.integration.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Recorded API responses on disk, one file per request URL (API key stripped) named by the URL's
+ * SHA-256. Channel items from recorded channels.list responses are also indexed by id, merged
+ * across the parts they were fetched with, so replay can answer any mix of recorded channels and
+ * use them as templates for synthetic ones.
+ */
+@Slf4j
+final class FixtureStore {
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ObjectNode> channels = new ConcurrentHashMap<>();
+    private volatile List<ObjectNode> templates = List.of();
+
+    FixtureStore(Path dir, ObjectMapper objectMapper) {
+        this.dir = dir;
+        this.objectMapper = objectMapper;
+    }
+
+    static String key(URI url) {
+        String normalized = UriComponentsBuilder.fromUri(url).replaceQueryParam("key").build().toUriString();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Read every fixture once and index the channel items they contain. */
+    void load() {
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(f -> f.getFileName().toString().endsWith(".json")).forEach(f -> {
+                try {
+                    index(Files.readAllBytes(f));
+                } catch (IOException e) {
+                    log.warn("Skipping unreadable fixture {}: {}", f, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        refreshTemplates();
+        log.info("Loaded fixtures from {}: {} recorded channels", dir, channels.size());
+    }
+
+    Optional<byte[]> find(String key) {
+        Path file = dir.resolve(key + ".json");
+        if (!Files.exists(file)) return Optional.empty();
+        try {
+            return Optional.of(Files.readAllBytes(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Write atomically, so a replaying node never reads half a fixture. */
+    void save(String key, URI url, byte[] body) {
+        try {
+            Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, key, ".tmp");
+            Files.write(tmp, body);
+            Files.move(tmp, dir.resolve(key + ".json"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Recorded {} as {}", UriComponentsBuilder.fromUri(url).replaceQueryParam("key").build(), key);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        index(body);
+        refreshTemplates();
+    }
+
+    Optional<ObjectNode> channel(String id) {
+        return Optional.ofNullable(channels.get(id)).map(ObjectNode::deepCopy);
+    }
+
+    /** Recorded channels carrying both snippet and statistics, usable as synthetic templates. */
+    List<ObjectNode> templates() {
+        return templates;
+    }
+
+    int channelCount() {
+        return channels.size();
+    }
+
+    private void index(byte[] body) {
+        JsonNode items;
+        try {
+            items = objectMapper.readTree(body).path("items");
+        } catch (IOException e) {
+            return;
+        }
+        // search.list items carry an id object; only channel resources have a textual id
+        for (JsonNode item : items) {
+            if (item instanceof ObjectNode node && node.path("id").isTextual()) {
+                channels.merge(node.get("id").asText(), node.deepCopy(), (a, b) -> {
+                    a.setAll(b);
+                    return a;
+                });
+            }
+        }
+    }
+
+    private void refreshTemplates() {
+        templates = channels.values().stream()
+                .filter(c -> c.has("snippet") && c.has("statistics"))
+                .map(ObjectNode::deepCopy)
+                .toList();
+    }
+}
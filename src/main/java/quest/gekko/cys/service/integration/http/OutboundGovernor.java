@@ -0,0 +1,206 @@
+package quest.gekko.cys.service.integration.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Every call to one upstream API goes through here: circuit breaker, then an
+ * {@link AdaptiveLimiter} permit, then the call with a per-attempt timeout. Retryable failures
+ * (429, rate-limit 403s, 5xx, I/O errors, timeouts) are retried with full-jitter exponential
+ * backoff, or after the server's {@code Retry-After} when it sends one.
+ * <p>
+ * Callers that pay per request (API quota) pass an admission hook, which runs once per logical
+ * call and only once an attempt holds both the breaker's pass and a permit, so calls rejected
+ * locally never spend anything.
+ */
+public final class OutboundGovernor {
+    /** How a finished attempt feeds the limiter, the breaker and the retry decision. */
+    private enum Kind {
+        SUCCESS(false), THROTTLED(true), QUOTA(false), SERVER_ERROR(true), CLIENT_ERROR(false), REJECTED(false),
+        NOT_ADMITTED(false);
+
+        final boolean retryable;
+
+        Kind(boolean retryable) {
+            this.retryable = retryable;
+        }
+    }
+
+    private record Attempt(CircuitBreaker.Pass pass, AdaptiveLimiter.Permit permit, long startedNanos) {}
+
+    /** Carries the admission hook's failure through the retry decision, which must not retry it. */
+    private static final class NotAdmittedException extends RuntimeException {
+        NotAdmittedException(RuntimeException cause) {
+            super(cause);
+        }
+    }
+
+    private final String upstream;
+    private final SocialProperties.Outbound props;
+    private final AdaptiveLimiter limiter;
+    private final CircuitBreaker breaker;
+    private final MeterRegistry meterRegistry;
+
+    OutboundGovernor(String upstream, SocialProperties.Outbound props, MeterRegistry meterRegistry) {
+        this.upstream = upstream;
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+        this.limiter = new AdaptiveLimiter(upstream, props.initialLimit(), props.minLimit(), props.maxLimit(),
+                props.latencyTarget().toNanos(), props.maxQueued());
+        this.breaker = new CircuitBreaker(props.breakerWindow(), props.breakerMinCalls(),
+                props.breakerFailureRate(), props.breakerOpenFor());
+
+        Gauge.builder("outbound.limit", limiter, AdaptiveLimiter::limit).tag("upstream", upstream).register(meterRegistry);
+        Gauge.builder("outbound.inflight", limiter, AdaptiveLimiter::inFlight).tag("upstream", upstream).register(meterRegistry);
+        // 0 = closed, 1 = half-open, 2 = open
+        Gauge.builder("outbound.breaker.state", breaker, b -> b.state().ordinal()).tag("upstream", upstream).register(meterRegistry);
+    }
+
+    public <T> Mono<T> guard(Mono<T> call) {
+        return guard(call, null);
+    }
+
+    /**
+     * Like {@link #guard(Mono)}, running {@code admit} before the first attempt that gets past the
+     * breaker and the limiter. If it throws, the call fails with that exception, unretried.
+     */
+    public <T> Mono<T> guard(Mono<T> call, Runnable admit) {
+        return Mono.defer(() -> {
+            AtomicBoolean admitted = new AtomicBoolean(admit == null);
+            Mono<T> admittedCall = Mono.defer(() -> {
+                if (admitted.compareAndSet(false, true)) {
+                    try {
+                        admit.run();
+                    } catch (RuntimeException e) {
+                        return Mono.error(new NotAdmittedException(e));
+                    }
+                }
+                return call;
+            });
+            return attempt(admittedCall).retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable failure = signal.failure();
+                if (!classify(failure).retryable || signal.totalRetries() + 1 >= props.maxAttempts()) {
+                    return Mono.error(failure);
+                }
+                Duration delay = retryAfter(failure).orElseGet(() -> backoff(signal.totalRetries()));
+                if (delay.compareTo(props.maxBackoff()) > 0) return Mono.error(failure);
+
+                meterRegistry.counter("outbound.retries", "upstream", upstream).increment();
+                return Mono.delay(delay);
+            }))).onErrorMap(NotAdmittedException.class, Throwable::getCause);
+        });
+    }
+
+    private <T> Mono<T> attempt(Mono<T> call) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Pass pass = breaker.tryPass();
+            if (pass == null) {
+                meterRegistry.counter("outbound.rejected", "upstream", upstream, "reason", "circuit-open").increment();
+                return Mono.error(new CircuitBreaker.CircuitOpenException(upstream));
+            }
+            return Mono.usingWhen(
+                            limiter.acquire().map(permit -> new Attempt(pass, permit, System.nanoTime())),
+                            attempt -> call.timeout(props.callTimeout()),
+                            attempt -> Mono.fromRunnable(() -> finish(attempt, Kind.SUCCESS)),
+                            (attempt, error) -> Mono.fromRunnable(() -> finish(attempt, classify(error))),
+                            attempt -> Mono.fromRunnable(() -> {
+                                attempt.permit().release(AdaptiveLimiter.Outcome.CANCELLED, 0);
+                                breaker.release(pass);
+                            }))
+                    .doOnError(AdaptiveLimiter.LimitExceededException.class, e -> {
+                        breaker.release(pass);
+                        meterRegistry.counter("outbound.rejected", "upstream", upstream, "reason", "queue-full").increment();
+                    });
+        });
+    }
+
+    private void finish(Attempt attempt, Kind kind) {
+        long latency = System.nanoTime() - attempt.startedNanos();
+        switch (kind) {
+            case SUCCESS, CLIENT_ERROR -> {
+                attempt.permit().release(AdaptiveLimiter.Outcome.SUCCESS, latency);
+                breaker.record(attempt.pass(), false);
+            }
+            case THROTTLED, QUOTA -> {
+                // The upstream is up but wants less traffic: shrink, don't trip the breaker
+                attempt.permit().release(AdaptiveLimiter.Outcome.OVERLOAD, latency);
+                breaker.record(attempt.pass(), false);
+            }
+            case SERVER_ERROR -> {
+                attempt.permit().release(AdaptiveLimiter.Outcome.FAILURE, latency);
+                breaker.record(attempt.pass(), true);
+            }
+            case REJECTED -> {
+                attempt.permit().release(AdaptiveLimiter.Outcome.FAILURE, latency);
+                breaker.release(attempt.pass());
+            }
+            case NOT_ADMITTED -> {
+                // Never reached the upstream
+                attempt.permit().release(AdaptiveLimiter.Outcome.CANCELLED, 0);
+                breaker.release(attempt.pass());
+            }
+        }
+        meterRegistry.counter("outbound.calls", "upstream", upstream, "outcome", kind.name().toLowerCase()).increment();
+    }
+
+    private static Kind classify(Throwable error) {
+        if (error instanceof NotAdmittedException) return Kind.NOT_ADMITTED;
+        if (error instanceof WebClientResponseException e) {
+            int status = e.getStatusCode().value();
+            if (status == 429) return Kind.THROTTLED;
+            if (status == 403) {
+                String body = e.getResponseBodyAsString();
+                if (body.contains("quotaExceeded") || body.contains("dailyLimitExceeded")) return Kind.QUOTA;
+                if (body.contains("rateLimitExceeded")) return Kind.THROTTLED;
+                return Kind.CLIENT_ERROR;
+            }
+            return status >= 500 ? Kind.SERVER_ERROR : Kind.CLIENT_ERROR;
+        }
+        if (error instanceof WebClientRequestException || error instanceof TimeoutException || error instanceof IOException) {
+            return Kind.SERVER_ERROR;
+        }
+        if (error instanceof CircuitBreaker.CircuitOpenException || error instanceof AdaptiveLimiter.LimitExceededException) {
+            return Kind.REJECTED;
+        }
+        // Decoding errors and the like say nothing about the upstream's health
+        return Kind.CLIENT_ERROR;
+    }
+
+    private Duration backoff(long retriesSoFar) {
+        long cap = Math.min(props.maxBackoff().toMillis(), props.baseBackoff().toMillis() << Math.min(retriesSoFar, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cap + 1));
+    }
+
+    static Optional<Duration> retryAfter(Throwable error) {
+        if (!(error instanceof WebClientResponseException e)) return Optional.empty();
+        String value = e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) return Optional.empty();
+        try {
+            return Optional.of(Duration.ofSeconds(Long.parseLong(value.trim())));
+        } catch (NumberFormatException notSeconds) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                Duration wait = Duration.between(ZonedDateTime.now(at.getZone()), at);
+                return Optional.of(wait.isNegative() ? Duration.ZERO : wait);
+            } catch (DateTimeParseException e2) {
+                return Optional.empty();
+            }
+        }
+    }
+}
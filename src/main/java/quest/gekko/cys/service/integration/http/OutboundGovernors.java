@@ -0,0 +1,26 @@
+package quest.gekko.cys.service.integration.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import quest.gekko.cys.config.SocialProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link OutboundGovernor} per upstream API, so a struggling upstream only throttles its
+ * own calls.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboundGovernors {
+    private final SocialProperties.Outbound props;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, OutboundGovernor> governors = new ConcurrentHashMap<>();
+
+    public OutboundGovernor forUpstream(String upstream) {
+        return governors.computeIfAbsent(upstream, u -> new OutboundGovernor(u, props, meterRegistry));
+    }
+}
@@ -0,0 +1,161 @@
+package quest.gekko.cys.service.integration.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.util.UriComponentsBuilder;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Record/replay for the YouTube Data API, so ingestion and discovery throughput can be measured
+ * without network or quota. In RECORD mode calls go out as usual and every 200 is also written to
+ * the fixture store. In REPLAY mode nothing leaves the process: a recorded response for the exact
+ * URL is served if there is one, channels.list and search.list are otherwise answered by
+ * {@link SyntheticYouTube}, and anything else is a 404. Each replayed response is delayed by the
+ * configured synthetic latency.
+ * <p>
+ * The filter sits innermost, so the outbound governor, quota ledger and ETag cache above it
+ * behave as they would against the real API.
+ */
+@Component
+@Slf4j
+public class RecordReplayFilter implements ExchangeFilterFunction {
+    private static final String HOST = "www.googleapis.com";
+    private static final byte[] NOT_FOUND = "{\"error\":{\"code\":404,\"message\":\"No fixture\"}}".getBytes(StandardCharsets.UTF_8);
+
+    private final SocialProperties.Fixtures props;
+    private final FixtureStore store;
+    private final SyntheticYouTube synthetic;
+    private final Counter recorded;
+    private final Counter replayed;
+    private final Counter synthesized;
+    private final Counter missing;
+
+    public RecordReplayFilter(SocialProperties.Fixtures props, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.props = props;
+        this.store = new FixtureStore(props.dir(), objectMapper);
+        this.synthetic = new SyntheticYouTube(store, objectMapper, props.syntheticChannels());
+        this.recorded = meterRegistry.counter("fixtures.responses", "source", "recorded");
+        this.replayed = meterRegistry.counter("fixtures.responses", "source", "replayed");
+        this.synthesized = meterRegistry.counter("fixtures.responses", "source", "synthetic");
+        this.missing = meterRegistry.counter("fixtures.responses", "source", "missing");
+        if (props.mode() != SocialProperties.FixtureMode.OFF) {
+            log.warn("YouTube API calls are in {} mode (fixtures in {})", props.mode(), props.dir().toAbsolutePath());
+            if (props.mode() == SocialProperties.FixtureMode.REPLAY) store.load();
+        }
+    }
+
+    public SocialProperties.FixtureMode mode() {
+        return props.mode();
+    }
+
+    public long syntheticChannels() {
+        return props.syntheticChannels();
+    }
+
+    public int recordedChannels() {
+        return store.channelCount();
+    }
+
+    /** Prefix of the synthetic channel ids replay answers for; the rest is a zero-padded counter. */
+    public String syntheticIdPrefix() {
+        return SyntheticYouTube.ID_PREFIX;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        if (props.mode() == SocialProperties.FixtureMode.OFF || !HOST.equals(request.url().getHost())) {
+            return next.exchange(request);
+        }
+        return props.mode() == SocialProperties.FixtureMode.RECORD ? record(request, next) : replay(request);
+    }
+
+    private Mono<ClientResponse> record(ClientRequest request, ExchangeFunction next) {
+        if (request.method() != HttpMethod.GET) return next.exchange(request);
+        return next.exchange(request).flatMap(response -> {
+            if (response.statusCode().value() != HttpStatus.OK.value()) return Mono.just(response);
+            return response.bodyToMono(byte[].class)
+                    .defaultIfEmpty(new byte[0])
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(body -> {
+                        store.save(FixtureStore.key(request.url()), request.url(), body);
+                        recorded.increment();
+                        return response.mutate().body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))).build();
+                    });
+        });
+    }
+
+    private Mono<ClientResponse> replay(ClientRequest request) {
+        return Mono.fromCallable(() -> respond(request.url()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .delayElement(latency());
+    }
+
+    private ClientResponse respond(URI url) {
+        var fixture = store.find(FixtureStore.key(url));
+        if (fixture.isPresent()) {
+            replayed.increment();
+            return response(HttpStatus.OK, fixture.get());
+        }
+
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(url).build().getQueryParams();
+        String parts = param(params, "part", "");
+        byte[] body = null;
+        if (url.getPath().endsWith("/channels") && params.containsKey("id")) {
+            body = synthetic.channels(Arrays.asList(param(params, "id", "").split(",")), parts);
+        } else if (url.getPath().endsWith("/channels") && params.containsKey("forHandle")) {
+            body = synthetic.channelForHandle(param(params, "forHandle", ""), parts);
+        } else if (url.getPath().endsWith("/search")) {
+            body = synthetic.search(param(params, "q", ""), Integer.parseInt(param(params, "maxResults", "5")));
+        }
+
+        if (body == null) {
+            missing.increment();
+            log.debug("No fixture for {}", url.getPath());
+            return response(HttpStatus.NOT_FOUND, NOT_FOUND);
+        }
+        synthesized.increment();
+        return response(HttpStatus.OK, body);
+    }
+
+    private Duration latency() {
+        long mean = props.latency().toNanos();
+        long jitter = props.latencyJitter().toNanos();
+        long offset = jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0;
+        return Duration.ofNanos(Math.max(0, mean + offset));
+    }
+
+    private static String param(MultiValueMap<String, String> params, String name, String fallback) {
+        String value = params.getFirst(name);
+        return value == null ? fallback : URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static ClientResponse response(HttpStatus status, byte[] body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                .build();
+    }
+}
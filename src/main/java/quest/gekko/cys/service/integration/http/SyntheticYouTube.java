@@ -0,0 +1,118 @@
+package quest.gekko.cys.service.integration.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Answers YouTube Data API calls that have no recorded fixture. Recorded channels are served as
+ * they were recorded; any other id becomes a copy of a recorded channel (picked by the id's hash)
+ * with its own title, handle and counters scaled by a per-id factor. Counters also grow a little
+ * each day, so repeated ingestion runs see the movement real channels would show.
+ */
+final class SyntheticYouTube {
+    static final String ID_PREFIX = "UCsynth";
+    private static final LocalDate GROWTH_EPOCH = LocalDate.of(2025, 1, 1);
+
+    private final FixtureStore store;
+    private final ObjectMapper objectMapper;
+    private final long syntheticChannels;
+    private final ObjectNode fallbackTemplate;
+
+    SyntheticYouTube(FixtureStore store, ObjectMapper objectMapper, long syntheticChannels) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.syntheticChannels = Math.max(1, syntheticChannels);
+        this.fallbackTemplate = fallbackTemplate(objectMapper);
+    }
+
+    /** The id of the n-th synthetic channel: 24 characters, like a real one. */
+    static String syntheticId(long n) {
+        return ID_PREFIX + String.format("%017d", n);
+    }
+
+    byte[] channels(List<String> ids, String parts) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode items = response.putArray("items");
+        for (String id : ids) {
+            ObjectNode item = store.channel(id).orElseGet(() -> synthesize(id));
+            if (!parts.contains("snippet")) item.remove("snippet");
+            if (!parts.contains("statistics")) item.remove("statistics");
+            items.add(item);
+        }
+        return write(response);
+    }
+
+    byte[] channelForHandle(String handle, String parts) {
+        String bare = handle.startsWith("@") ? handle.substring(1) : handle;
+        return channels(List.of(syntheticId(Math.floorMod(bare.toLowerCase(Locale.ROOT).hashCode(), syntheticChannels) + 1)), parts);
+    }
+
+    /** Search hits are drawn deterministically from the synthetic id range, so seeded channels get rediscovered. */
+    byte[] search(String query, int maxResults) {
+        ObjectNode response = objectMapper.createObjectNode();
+        ArrayNode items = response.putArray("items");
+        long seed = query.toLowerCase(Locale.ROOT).hashCode();
+        for (int i = 0; i < maxResults; i++) {
+            long n = Math.floorMod(seed * 31 + i * 0x9E3779B97F4A7C15L, syntheticChannels) + 1;
+            items.addObject().putObject("id").put("kind", "youtube#channel").put("channelId", syntheticId(n));
+        }
+        return write(response);
+    }
+
+    private ObjectNode synthesize(String id) {
+        List<ObjectNode> templates = store.templates();
+        int hash = id.hashCode();
+        ObjectNode item = (templates.isEmpty() ? fallbackTemplate : templates.get(Math.floorMod(hash, templates.size()))).deepCopy();
+        item.put("id", id);
+
+        String suffix = id.matches(ID_PREFIX + "\\d+") ? Long.toString(Long.parseLong(id.substring(ID_PREFIX.length()))) : id;
+        ObjectNode snippet = (ObjectNode) item.path("snippet");
+        snippet.put("title", snippet.path("title").asText("Channel") + " " + suffix);
+        snippet.put("customUrl", "@synth" + suffix.toLowerCase(Locale.ROOT));
+
+        // 0.05x .. 3x the template's counters, then the daily drift
+        double factor = (0.05 + (hash & 0xFFFF) / 65535.0 * 2.95) * growth();
+        ObjectNode statistics = (ObjectNode) item.path("statistics");
+        for (String counter : List.of("subscriberCount", "viewCount", "videoCount")) {
+            if (statistics.has(counter)) {
+                statistics.put(counter, Long.toString(Math.round(statistics.get(counter).asLong() * factor)));
+            }
+        }
+        return item;
+    }
+
+    private static double growth() {
+        long days = LocalDate.now(ZoneOffset.UTC).toEpochDay() - GROWTH_EPOCH.toEpochDay();
+        return 1 + Math.max(0, days) * 0.0005;
+    }
+
+    private byte[] write(ObjectNode response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Used until at least one channel with snippet and statistics has been recorded
+    private static ObjectNode fallbackTemplate(ObjectMapper objectMapper) {
+        ObjectNode item = objectMapper.createObjectNode();
+        ObjectNode snippet = item.putObject("snippet");
+        snippet.put("title", "Synthetic channel");
+        snippet.put("description", "");
+        snippet.put("country", "US");
+        snippet.putObject("thumbnails").putObject("default").put("url", "https://yt3.ggpht.com/synthetic=s88");
+        ObjectNode statistics = item.putObject("statistics");
+        statistics.put("subscriberCount", "250000");
+        statistics.put("viewCount", "60000000");
+        statistics.put("videoCount", "400");
+        return item;
+    }
+}
@@ -0,0 +1,11 @@
+package quest.gekko.cys.service.integration.quota;
+
+/**
+ * Who is spending API quota, in priority order. A class may use its own share plus whatever the
+ * classes after it leave unspent, so ingestion can never be starved by search or discovery.
+ */
+public enum QuotaConsumer {
+    INGESTION,
+    SEARCH,
+    DISCOVERY
+}
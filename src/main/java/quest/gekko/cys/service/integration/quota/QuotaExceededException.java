@@ -0,0 +1,14 @@
+package quest.gekko.cys.service.integration.quota;
+
+public class QuotaExceededException extends RuntimeException {
+    private final QuotaConsumer consumer;
+
+    public QuotaExceededException(QuotaConsumer consumer, YouTubeEndpoint endpoint) {
+        super("YouTube quota share for " + consumer + " is spent; refusing " + endpoint);
+        this.consumer = consumer;
+    }
+
+    public QuotaConsumer getConsumer() {
+        return consumer;
+    }
+}
@@ -0,0 +1,145 @@
+package quest.gekko.cys.service.integration.quota;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.repository.QuotaSpendRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily YouTube Data API quota ledger shared by ingestion, search and discovery.
+ * <p>
+ * The daily budget is split into shares per {@link QuotaConsumer}. Consumers are nested by
+ * priority: a class may spend while it and every lower-priority class together stay within their
+ * combined shares. Ingestion can use the whole budget; search can use its share plus whatever
+ * discovery hasn't spent; discovery only gets its own share. Every class is also held to what is
+ * left of the daily budget, so spend by a higher-priority class beyond its own share comes out of
+ * the allowance of the classes below it.
+ * <p>
+ * YouTube resets quota at midnight Pacific time, so that is where the ledger rolls over too.
+ * Spend is kept per quota day in {@link QuotaSpendRepository}, so every node draws on the one
+ * project-wide budget and a restart remembers what was spent earlier in the day.
+ */
+@Component
+@Slf4j
+public class QuotaLedger {
+    private static final ZoneId QUOTA_ZONE = ZoneId.of("America/Los_Angeles");
+    private static final List<String> CONSUMERS = Arrays.stream(QuotaConsumer.values()).map(Enum::name).toList();
+
+    private final Map<QuotaConsumer, Long> shares = new EnumMap<>(QuotaConsumer.class);
+    private final long dailyBudget;
+    private final QuotaSpendRepository spendRepository;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    // Last quota day this node made sure the spend rows exist for
+    private volatile LocalDate openedDay;
+
+    @Autowired
+    public QuotaLedger(SocialProperties.YouTubeQuota quota, QuotaSpendRepository spendRepository, MeterRegistry meterRegistry) {
+        this(quota, spendRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    QuotaLedger(SocialProperties.YouTubeQuota quota, QuotaSpendRepository spendRepository, MeterRegistry meterRegistry,
+                Clock clock) {
+        this.dailyBudget = quota.dailyUnits();
+        this.spendRepository = spendRepository;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        long ingestion = Math.round(quota.dailyUnits() * quota.ingestionShare());
+        long search = Math.round(quota.dailyUnits() * quota.searchShare());
+        shares.put(QuotaConsumer.INGESTION, ingestion);
+        shares.put(QuotaConsumer.SEARCH, search);
+        shares.put(QuotaConsumer.DISCOVERY, Math.max(0, quota.dailyUnits() - ingestion - search));
+
+        for (QuotaConsumer consumer : QuotaConsumer.values()) {
+            Gauge.builder("youtube.quota.remaining", this, ledger -> ledger.remaining(consumer))
+                    .tag("consumer", consumer.name())
+                    .description("Quota units this consumer may still spend today")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Charge one call to the current {@link QuotaScope}.
+     *
+     * @throws QuotaExceededException if that consumer's allowance for today is spent
+     */
+    public void acquire(YouTubeEndpoint endpoint) {
+        acquire(QuotaScope.current(), endpoint);
+    }
+
+    public void acquire(QuotaConsumer consumer, YouTubeEndpoint endpoint) {
+        if (!tryAcquire(consumer, endpoint)) {
+            Counter.builder("youtube.quota.rejected")
+                    .tag("consumer", consumer.name())
+                    .tag("endpoint", endpoint.name())
+                    .register(meterRegistry)
+                    .increment();
+            throw new QuotaExceededException(consumer, endpoint);
+        }
+        Counter.builder("youtube.quota.units")
+                .tag("consumer", consumer.name())
+                .tag("endpoint", endpoint.name())
+                .description("Quota units spent")
+                .register(meterRegistry)
+                .increment(endpoint.cost());
+    }
+
+    public boolean tryAcquire(QuotaConsumer consumer, YouTubeEndpoint endpoint) {
+        return spendRepository.charge(openDay(), consumer.name(), endpoint.cost(),
+                spent -> remaining(consumer, spent) >= endpoint.cost());
+    }
+
+    /**
+     * Units this consumer may still spend today: its nested allowance, capped by what is left of
+     * the daily budget after every class's spend on any node.
+     */
+    public long remaining(QuotaConsumer consumer) {
+        return remaining(consumer, spendRepository.spent(today()));
+    }
+
+    public Map<QuotaConsumer, Long> spentToday() {
+        Map<String, Long> spent = spendRepository.spent(today());
+        Map<QuotaConsumer, Long> byConsumer = new EnumMap<>(QuotaConsumer.class);
+        for (QuotaConsumer c : QuotaConsumer.values()) byConsumer.put(c, spent.getOrDefault(c.name(), 0L));
+        return byConsumer;
+    }
+
+    private long remaining(QuotaConsumer consumer, Map<String, Long> spent) {
+        long share = 0, used = 0, usedByAll = 0;
+        for (QuotaConsumer c : QuotaConsumer.values()) {
+            long units = spent.getOrDefault(c.name(), 0L);
+            usedByAll += units;
+            if (c.ordinal() < consumer.ordinal()) continue;
+            share += shares.get(c);
+            used += units;
+        }
+        return Math.max(0, Math.min(share - used, dailyBudget - usedByAll));
+    }
+
+    private LocalDate openDay() {
+        LocalDate today = today();
+        LocalDate previous = openedDay;
+        if (!today.equals(previous)) {
+            spendRepository.openDay(today, CONSUMERS);
+            if (previous != null) log.info("YouTube quota day rolled over; spent on {}: {}", previous, spendRepository.spent(previous));
+            openedDay = today;
+        }
+        return today;
+    }
+
+    private LocalDate today() {
+        return LocalDate.ofInstant(clock.instant(), QUOTA_ZONE);
+    }
+}
@@ -0,0 +1,56 @@
+package quest.gekko.cys.service.integration.quota;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.function.Supplier;
+
+/**
+ * Tags the current thread with the {@link QuotaConsumer} its connector calls are charged to.
+ * Code that hands work to another thread has to open a scope inside the task. Calls made
+ * outside any scope are charged to {@link QuotaConsumer#DISCOVERY}, the lowest priority.
+ * <p>
+ * Reactive pipelines hop threads, so they carry the consumer in the Reactor {@link Context}
+ * instead: {@code mono.contextWrite(QuotaScope.context(consumer))}.
+ */
+public final class QuotaScope {
+    private static final ThreadLocal<QuotaConsumer> CURRENT = new ThreadLocal<>();
+    private static final String CONTEXT_KEY = QuotaConsumer.class.getName();
+
+    private QuotaScope() {}
+
+    public static QuotaConsumer current() {
+        QuotaConsumer consumer = CURRENT.get();
+        return consumer != null ? consumer : QuotaConsumer.DISCOVERY;
+    }
+
+    public static Context context(QuotaConsumer consumer) {
+        return Context.of(CONTEXT_KEY, consumer);
+    }
+
+    /**
+     * The consumer in a Reactor context, falling back to {@code assembledIn}: the thread's
+     * scope when the pipeline was built, so blocking callers keep their scope too.
+     */
+    public static QuotaConsumer from(ContextView context, QuotaConsumer assembledIn) {
+        return context.getOrDefault(CONTEXT_KEY, assembledIn);
+    }
+
+    public static <T> T call(QuotaConsumer consumer, Supplier<T> work) {
+        QuotaConsumer previous = CURRENT.get();
+        CURRENT.set(consumer);
+        try {
+            return work.get();
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        }
+    }
+
+    public static void run(QuotaConsumer consumer, Runnable work) {
+        call(consumer, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package quest.gekko.cys.service.integration.quota;
+
+/**
+ * YouTube Data API endpoints we call and their quota cost in units per request.
+ */
+public enum YouTubeEndpoint {
+    CHANNELS_LIST(1),
+    SEARCH_LIST(100);
+
+    private final int cost;
+
+    YouTubeEndpoint(int cost) {
+        this.cost = cost;
+    }
+
+    public int cost() {
+        return cost;
+    }
+}
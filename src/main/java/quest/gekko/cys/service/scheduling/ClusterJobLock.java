@@ -0,0 +1,82 @@
+package quest.gekko.cys.service.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import quest.gekko.cys.config.ClusterProperties;
+import quest.gekko.cys.repository.SchedulerLockRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Runs a scheduled job on exactly one node per firing. Every instance keeps its {@code @Scheduled}
+ * triggers; the first to take the job's lock runs it and the others skip. The lock expires after
+ * {@code lockAtMostFor}, so a node that dies mid-job only blocks the job until then.
+ */
+@Component
+@Slf4j
+public class ClusterJobLock {
+    private final SchedulerLockRepository lockRepository;
+    private final ClusterProperties.Node node;
+    private final TransactionTemplate requiresNew;
+    private final MeterRegistry meterRegistry;
+
+    public ClusterJobLock(SchedulerLockRepository lockRepository, ClusterProperties.Node node,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.lockRepository = lockRepository;
+        this.node = node;
+        this.meterRegistry = meterRegistry;
+        // Lock changes must commit on their own, even when the job runs inside a transaction
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * @param lockAtMostFor  longest the job may hold the lock; keep it above its worst-case run time
+     * @param lockAtLeastFor shortest time the lock is held, to absorb clock skew between firings
+     * @return whether this node ran the job
+     */
+    public boolean runExclusively(String job, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+        Boolean locked = requiresNew.execute(tx -> lockRepository.tryLock(job, lockAtMostFor, node.id()));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Skipping {}: another node holds the lock", job);
+            return false;
+        }
+
+        Instant started = Instant.now();
+        long start = System.nanoTime();
+        String outcome = "success";
+        String error = null;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            error = e.getMessage();
+            throw e;
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            Timer.builder("scheduled.job.duration")
+                    .tag("job", job)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(elapsedNanos));
+            var run = new SchedulerLockRepository.JobRun(job, node.id(), started, elapsedNanos / 1_000_000, outcome, error);
+            try {
+                requiresNew.executeWithoutResult(tx -> {
+                    lockRepository.recordRun(run);
+                    lockRepository.unlock(job, lockAtLeastFor, node.id());
+                });
+            } catch (RuntimeException e) {
+                // The TTL still frees the lock
+                log.warn("Releasing lock for {} failed: {}", job, e.getMessage());
+            }
+            log.info("Job {} ran on {} in {} ms ({})", job, node.id(), run.durationMs(), outcome);
+        }
+        return true;
+    }
+}
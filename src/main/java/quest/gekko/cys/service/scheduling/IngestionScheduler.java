@@ -1,41 +1,134 @@
 package quest.gekko.cys.service.scheduling;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import quest.gekko.cys.domain.Channel;
-import quest.gekko.cys.repository.ChannelRepository;
+import quest.gekko.cys.domain.IngestionRun;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.service.ingestion.IngestionEngine;
+import quest.gekko.cys.service.ingestion.IngestionRunService;
+import quest.gekko.cys.service.ingestion.RefreshPlanner;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.core.DistributionService;
+import quest.gekko.cys.service.core.RankIndex;
 import quest.gekko.cys.service.core.RankingService;
-import quest.gekko.cys.service.core.StatsService;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class IngestionScheduler {
-    private final List<PlatformConnector> connectors;
-    private final ChannelRepository channelRepository;
-    private final StatsService statsService;
+    private final Map<Platform, PlatformConnector> connectorsByPlatform;
+    private final IngestionEngine ingestionEngine;
+    private final IngestionRunService runService;
     private final RankingService rankingService;
+    private final RankIndex rankIndex;
+    private final DistributionService distributionService;
+    private final RefreshPlanner refreshPlanner;
+    private final ClusterJobLock clusterJobLock;
 
-    // 02:10 UTC daily
+    // 02:10 UTC daily: refresh due channels, re-tier, then rank
     @Scheduled(cron = "0 10 2 * * *", zone = "UTC")
-    @Transactional
     public void runDailySnapshot() {
+        clusterJobLock.runExclusively("ingestion-daily", Duration.ofHours(20), Duration.ofMinutes(5), this::dailySnapshot);
+    }
+
+    // Hourly at :10 UTC, except 02:10 when the daily run covers it: only channels whose tier makes them due
+    @Scheduled(cron = "0 10 0-1,3-23 * * *", zone = "UTC")
+    public void runHourlyRefresh() {
+        clusterJobLock.runExclusively("ingestion-hourly", Duration.ofMinutes(55), Duration.ofMinutes(5), this::hourlyRefresh);
+    }
+
+    private void dailySnapshot() {
         LocalDate today = LocalDate.now(ZoneOffset.UTC);
-        for (PlatformConnector pc : connectors) {
-            var channels = channelRepository.findAll().stream()
-                    .filter(c -> c.getPlatform()==pc.platform()).toList();
-            for (Channel c : channels) {
-                var counters = pc.fetchCounters(c.getPlatformId());
-                statsService.snapshot(c, counters, today);
-                // TODO: add small backoff to respect quotas
+        resumeUnfinishedRuns();
+
+        for (PlatformConnector pc : connectorsByPlatform.values()) {
+            try {
+                ingestionEngine.run(pc, "daily:" + today, today, Instant.now());
+            } catch (Exception e) {
+                log.error("Daily snapshot for {} failed: {}", pc.platform(), e.getMessage(), e);
+            }
+        }
+
+        refreshPlanner.replan();
+        for (Platform platform : connectorsByPlatform.keySet()) {
+            rankingService.computeDailyRanks(today, platform);
+            distributionService.build(today, platform);
+            // Incremental updates keep it current; the daily reload drops channels that are gone
+            rankIndex.rebuild(platform);
+        }
+    }
+
+    private void hourlyRefresh() {
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
+        resumeUnfinishedRuns();
+        for (PlatformConnector pc : connectorsByPlatform.values()) {
+            try {
+                ingestionEngine.run(pc, "hourly:" + now.truncatedTo(ChronoUnit.HOURS), now.toLocalDate(), Instant.now());
+            } catch (Exception e) {
+                log.error("Hourly refresh for {} failed: {}", pc.platform(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Every node drains the shared task queue, so runs started on one node are spread across all.
+     * Deliberately not behind {@link ClusterJobLock}.
+     */
+    @Scheduled(fixedDelayString = "${ingestion.queue.worker-delay:30s}", initialDelayString = "${ingestion.queue.worker-delay:30s}")
+    public void workQueue() {
+        try {
+            ingestionEngine.workAvailable(connectorsByPlatform);
+        } catch (Exception e) {
+            log.error("Working the snapshot task queue failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pick up runs that were cut short by a restart instead of waiting for the next 02:10 firing.
+     */
+    @Async("snapshotExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        resumeUnfinishedRuns();
+    }
+
+    @Async("snapshotExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRankingsOnStartup() {
+        for (Platform platform : connectorsByPlatform.keySet()) {
+            try {
+                distributionService.load(platform);
+                rankIndex.rebuild(platform);
+            } catch (Exception e) {
+                log.error("Loading rankings for {} failed: {}", platform, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void resumeUnfinishedRuns() {
+        // Older runs would only backfill stale counters under an old date
+        LocalDate since = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        for (IngestionRun unfinished : runService.findUnfinishedSince(since)) {
+            PlatformConnector pc = connectorsByPlatform.get(unfinished.getPlatform());
+            if (pc == null) continue;
+            try {
+                ingestionEngine.run(pc, unfinished.getRunKey(), unfinished.getSnapshotDate(), unfinished.getDueBefore());
+            } catch (Exception e) {
+                log.error("Resuming ingestion run {} failed: {}", unfinished.getId(), e.getMessage(), e);
             }
-            rankingService.computeDailyRanks(today, pc.platform());
         }
     }
-}
\ No newline at end of file
+}
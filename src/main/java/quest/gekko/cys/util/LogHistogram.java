@@ -0,0 +1,199 @@
+package quest.gekko.cys.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distribution of signed counters in log-linear buckets: each power of two is split into 32
+ * equal sub-buckets, so any value is placed within about 3% of itself. Buckets of two histograms
+ * line up exactly, which makes them mergeable, and a sealed histogram answers percentile-of-value
+ * in O(1) from a cumulative count per bucket.
+ * <p>
+ * Fill it, then {@link #seal()} it before querying; a sealed histogram is immutable and can be
+ * shared between threads.
+ */
+public final class LogHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Buckets for magnitudes 0 .. Long.MAX_VALUE
+    private static final int MAGNITUDE_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    private static final byte FORMAT_VERSION = 1;
+
+    /** Values in [lower, upper). */
+    public record Bucket(long lower, long upper, long count) {}
+
+    // Negative magnitudes mirrored below the midpoint, so slot order is value order
+    private final long[] counts = new long[2 * MAGNITUDE_BUCKETS];
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long[] cumulative;
+
+    public void add(long value) {
+        if (cumulative != null) throw new IllegalStateException("Histogram is sealed");
+        counts[slot(value)]++;
+        total++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(LogHistogram other) {
+        if (cumulative != null) throw new IllegalStateException("Histogram is sealed");
+        for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /** Precompute cumulative counts and stop accepting values. */
+    public LogHistogram seal() {
+        if (cumulative == null) {
+            long[] running = new long[counts.length];
+            long sum = 0;
+            for (int i = 0; i < counts.length; i++) {
+                sum += counts[i];
+                running[i] = sum;
+            }
+            cumulative = running;
+        }
+        return this;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long min() {
+        return total == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return total == 0 ? 0 : max;
+    }
+
+    /**
+     * Share of values below {@code value}, 0–100; values in the same bucket count as half below,
+     * half above.
+     */
+    public double percentileOf(long value) {
+        requireSealed();
+        if (total == 0) return 0;
+        int slot = slot(value);
+        long below = slot == 0 ? 0 : cumulative[slot - 1];
+        return 100.0 * (below + counts[slot] / 2.0) / total;
+    }
+
+    /** Estimated value at {@code percentile} (0–100): the midpoint of the bucket it falls in. */
+    public long valueAt(double percentile) {
+        requireSealed();
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(Math.clamp(percentile, 0, 100) / 100.0 * total);
+        int slot = Arrays.binarySearch(cumulative, Math.max(1, target));
+        if (slot < 0) slot = -slot - 1;
+        // First of any run of equal cumulative counts is the bucket that reached the target
+        while (slot > 0 && cumulative[slot - 1] == cumulative[slot]) slot--;
+        long lower = lowerBound(slot);
+        long mid = lower + (upperBound(slot) - lower) / 2;
+        return Math.clamp(mid, min, max);
+    }
+
+    /** Non-empty buckets in value order. */
+    public List<Bucket> buckets() {
+        List<Bucket> buckets = new ArrayList<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) buckets.add(new Bucket(lowerBound(slot), upperBound(slot), counts[slot]));
+        }
+        return buckets;
+    }
+
+    /** Non-empty buckets merged per power of two of the magnitude, for charts. */
+    public List<Bucket> octaves() {
+        List<Bucket> octaves = new ArrayList<>();
+        int octave = 0;
+        for (Bucket b : buckets()) {
+            // Fine buckets never straddle a power of two, so one value of each identifies its octave
+            int key = b.lower() >= 0
+                    ? 64 - Long.numberOfLeadingZeros(b.lower())
+                    : -(64 - Long.numberOfLeadingZeros(1 - b.upper()));
+            Bucket last = octaves.isEmpty() ? null : octaves.getLast();
+            if (last != null && key == octave) {
+                octaves.set(octaves.size() - 1, new Bucket(last.lower(), b.upper(), last.count() + b.count()));
+            } else {
+                octaves.add(b);
+            }
+            octave = key;
+        }
+        return octaves;
+    }
+
+    public byte[] toBytes() {
+        int used = 0;
+        for (long c : counts) if (c > 0) used++;
+        ByteBuffer buf = ByteBuffer.allocate(1 + 8 * 3 + 4 + used * (4 + 8));
+        buf.put(FORMAT_VERSION).putLong(total).putLong(min).putLong(max).putInt(used);
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) buf.putInt(slot).putLong(counts[slot]);
+        }
+        return buf.array();
+    }
+
+    /** Read a histogram written by {@link #toBytes()}; the result is sealed. */
+    public static LogHistogram fromBytes(byte[] bytes) {
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        byte version = buf.get();
+        if (version != FORMAT_VERSION) throw new IllegalArgumentException("Unknown histogram format " + version);
+        LogHistogram h = new LogHistogram();
+        h.total = buf.getLong();
+        h.min = buf.getLong();
+        h.max = buf.getLong();
+        int used = buf.getInt();
+        for (int i = 0; i < used; i++) {
+            int slot = buf.getInt();
+            h.counts[slot] = buf.getLong();
+        }
+        return h.seal();
+    }
+
+    private void requireSealed() {
+        if (cumulative == null) throw new IllegalStateException("Histogram is not sealed");
+    }
+
+    private static int slot(long value) {
+        if (value >= 0) return MAGNITUDE_BUCKETS + magnitudeIndex(value);
+        // Long.MIN_VALUE has no positive counterpart; it shares the largest negative bucket
+        return MAGNITUDE_BUCKETS - 1 - magnitudeIndex(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value);
+    }
+
+    // Below 32 every value has its own bucket; above, the top six bits pick one
+    private static int magnitudeIndex(long magnitude) {
+        if (magnitude < SUB_BUCKETS) return (int) magnitude;
+        int exponent = 63 - Long.numberOfLeadingZeros(magnitude);
+        int mantissa = (int) (magnitude >>> (exponent - SUB_BUCKET_BITS));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    private static long magnitudeLower(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+        return mantissa << (exponent - SUB_BUCKET_BITS);
+    }
+
+    // Exclusive; saturates for the top bucket
+    private static long magnitudeUpper(int index) {
+        return index + 1 == MAGNITUDE_BUCKETS ? Long.MAX_VALUE : magnitudeLower(index + 1);
+    }
+
+    private static long lowerBound(int slot) {
+        if (slot >= MAGNITUDE_BUCKETS) return magnitudeLower(slot - MAGNITUDE_BUCKETS);
+        // Negative bucket of magnitudes [lo, hi) covers values (-hi, -lo]
+        return -magnitudeUpper(MAGNITUDE_BUCKETS - 1 - slot) + 1;
+    }
+
+    private static long upperBound(int slot) {
+        if (slot >= MAGNITUDE_BUCKETS) return magnitudeUpper(slot - MAGNITUDE_BUCKETS);
+        return -magnitudeLower(MAGNITUDE_BUCKETS - 1 - slot) + 1;
+    }
+}
@@ -0,0 +1,98 @@
+package quest.gekko.cys.util;
+
+/**
+ * Open-addressing long -> long map with backward-shift deletion; no boxing, no tombstones, so a
+ * million entries cost a few dozen bytes each.
+ * <p>
+ * Not thread-safe.
+ */
+public final class LongLongMap {
+    private long[] keys;
+    private long[] vals;
+    private boolean[] used;
+    private int count;
+    private int mask;
+
+    public LongLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public boolean containsKey(long key) {
+        return used[slot(key)];
+    }
+
+    /** The key's value; only meaningful when {@link #containsKey} is true. */
+    public long get(long key) {
+        return vals[slot(key)];
+    }
+
+    public void put(long key, long value) {
+        int slot = slot(key);
+        if (!used[slot]) {
+            used[slot] = true;
+            keys[slot] = key;
+            if (++count * 2 > keys.length) {
+                vals[slot] = value;
+                rehash();
+                return;
+            }
+        }
+        vals[slot] = value;
+    }
+
+    public void remove(long key) {
+        int slot = slot(key);
+        if (!used[slot]) return;
+        used[slot] = false;
+        count--;
+        // Shift later entries of the probe run back so lookups never stop at the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                vals[gap] = vals[next];
+                used[gap] = true;
+                used[next] = false;
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+    }
+
+    // Slot holding the key, or the empty slot where it would go
+    private int slot(long key) {
+        int slot = hash(key);
+        while (used[slot] && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        long[] oldVals = vals;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slot(oldKeys[i]);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                vals[slot] = oldVals[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        vals = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+}
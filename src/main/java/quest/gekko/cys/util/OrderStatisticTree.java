@@ -0,0 +1,248 @@
+package quest.gekko.cys.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Channels ordered by a counter, highest first (ties by lower id), answering rank and position
+ * queries in O(log n). A treap with subtree sizes, kept in parallel primitive arrays so a million
+ * entries cost a few dozen bytes each and nothing is boxed; an open-addressing id index finds a
+ * channel's current value for updates and rank lookups.
+ * <p>
+ * Not thread-safe; callers guard it with a read/write lock.
+ */
+public final class OrderStatisticTree {
+    private static final int NIL = -1;
+
+    private long[] values;
+    private long[] ids;
+    private int[] left;
+    private int[] right;
+    private int[] sizes;
+    private int[] priorities;
+    private int root = NIL;
+    private int allocated;
+    private int freeList = NIL;
+
+    private final LongLongMap index;
+
+    public OrderStatisticTree(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        values = new long[capacity];
+        ids = new long[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        sizes = new int[capacity];
+        priorities = new int[capacity];
+        index = new LongLongMap(capacity);
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean contains(long id) {
+        return index.containsKey(id);
+    }
+
+    /** The id's current value; only meaningful when {@link #contains} is true. */
+    public long valueOf(long id) {
+        return index.get(id);
+    }
+
+    /** Insert the id, or move it to its new value. */
+    public void put(long id, long value) {
+        if (index.containsKey(id)) {
+            long old = index.get(id);
+            if (old == value) return;
+            root = erase(root, old, id);
+        }
+        int node = allocate(id, value);
+        root = insert(root, node);
+        index.put(id, value);
+    }
+
+    public void remove(long id) {
+        if (!index.containsKey(id)) return;
+        root = erase(root, index.get(id), id);
+        index.remove(id);
+    }
+
+    /**
+     * Competition rank (1 = highest; ties share a rank, as SQL {@code RANK()} does), or 0 when the
+     * id is not in the tree.
+     */
+    public int rankOf(long id) {
+        if (!index.containsKey(id)) return 0;
+        return countGreater(index.get(id)) + 1;
+    }
+
+    /** 0-based position of the id in tree order, or -1 when absent. */
+    public int positionOf(long id) {
+        if (!index.containsKey(id)) return -1;
+        long value = index.get(id);
+        int position = 0;
+        int node = root;
+        while (node != NIL) {
+            int cmp = compare(value, id, node);
+            if (cmp == 0) return position + size(left[node]);
+            if (cmp < 0) {
+                node = left[node];
+            } else {
+                position += size(left[node]) + 1;
+                node = right[node];
+            }
+        }
+        return -1;
+    }
+
+    /** Number of entries with a value strictly greater than {@code value}. */
+    public int countGreater(long value) {
+        int count = 0;
+        int node = root;
+        while (node != NIL) {
+            if (values[node] > value) {
+                count += size(left[node]) + 1;
+                node = right[node];
+            } else {
+                node = left[node];
+            }
+        }
+        return count;
+    }
+
+    /** Id at a 0-based position in tree order. */
+    public long idAt(int position) {
+        return ids[nodeAt(position)];
+    }
+
+    /** Value at a 0-based position in tree order. */
+    public long valueAt(int position) {
+        return values[nodeAt(position)];
+    }
+
+    private int nodeAt(int position) {
+        if (position < 0 || position >= size()) throw new IndexOutOfBoundsException(position);
+        int node = root;
+        while (true) {
+            int leftSize = size(left[node]);
+            if (position < leftSize) {
+                node = left[node];
+            } else if (position == leftSize) {
+                return node;
+            } else {
+                position -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    // ---- Treap internals ----
+
+    // Negative when (value, id) sorts before the node: higher values first, then lower ids
+    private int compare(long value, long id, int node) {
+        if (value != values[node]) return value > values[node] ? -1 : 1;
+        return Long.compare(id, ids[node]);
+    }
+
+    private int insert(int node, int fresh) {
+        if (node == NIL) return fresh;
+        if (priorities[fresh] > priorities[node]) {
+            int[] halves = split(node, values[fresh], ids[fresh]);
+            left[fresh] = halves[0];
+            right[fresh] = halves[1];
+            update(fresh);
+            return fresh;
+        }
+        if (compare(values[fresh], ids[fresh], node) < 0) {
+            left[node] = insert(left[node], fresh);
+        } else {
+            right[node] = insert(right[node], fresh);
+        }
+        update(node);
+        return node;
+    }
+
+    // Splits into entries sorting before (value, id) and the rest
+    private int[] split(int node, long value, long id) {
+        if (node == NIL) return new int[]{NIL, NIL};
+        if (compare(value, id, node) <= 0) {
+            int[] halves = split(left[node], value, id);
+            left[node] = halves[1];
+            update(node);
+            return new int[]{halves[0], node};
+        }
+        int[] halves = split(right[node], value, id);
+        right[node] = halves[0];
+        update(node);
+        return new int[]{node, halves[1]};
+    }
+
+    private int erase(int node, long value, long id) {
+        if (node == NIL) return NIL;
+        int cmp = compare(value, id, node);
+        if (cmp == 0) {
+            int merged = merge(left[node], right[node]);
+            release(node);
+            return merged;
+        }
+        if (cmp < 0) left[node] = erase(left[node], value, id);
+        else right[node] = erase(right[node], value, id);
+        update(node);
+        return node;
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priorities[a] > priorities[b]) {
+            right[a] = merge(right[a], b);
+            update(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        update(b);
+        return b;
+    }
+
+    private void update(int node) {
+        sizes[node] = size(left[node]) + size(right[node]) + 1;
+    }
+
+    private int size(int node) {
+        return node == NIL ? 0 : sizes[node];
+    }
+
+    private int allocate(long id, long value) {
+        int node;
+        if (freeList != NIL) {
+            node = freeList;
+            freeList = left[node];
+        } else {
+            if (allocated == values.length) grow();
+            node = allocated++;
+        }
+        values[node] = value;
+        ids[node] = id;
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+        priorities[node] = ThreadLocalRandom.current().nextInt();
+        return node;
+    }
+
+    private void release(int node) {
+        left[node] = freeList;
+        freeList = node;
+    }
+
+    private void grow() {
+        int capacity = values.length + (values.length >> 1);
+        values = Arrays.copyOf(values, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+    }
+}
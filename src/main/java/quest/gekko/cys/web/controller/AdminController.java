@@ -4,15 +4,27 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import quest.gekko.cys.config.SocialProperties;
 import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
 import quest.gekko.cys.repository.ChannelRepository;
 import quest.gekko.cys.repository.DailyStatRepository;
+import quest.gekko.cys.repository.IngestionRunRepository;
+import quest.gekko.cys.repository.SchedulerLockRepository;
+import quest.gekko.cys.repository.SyntheticChannelRepository;
 import quest.gekko.cys.service.core.RankingService;
 import quest.gekko.cys.service.core.StatsService;
 import quest.gekko.cys.service.discovery.SmartDiscoveryService;
+import quest.gekko.cys.service.ingestion.IngestionEngine;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
-
+import quest.gekko.cys.service.integration.http.FaultInjectionFilter;
+import quest.gekko.cys.service.integration.http.RecordReplayFilter;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaLedger;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
+
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
 import java.util.List;
@@ -30,13 +42,20 @@ public class AdminController {
     private final RankingService rankingService;
     private final DailyStatRepository statRepo;
     private final SmartDiscoveryService smartDiscoveryService;
+    private final IngestionEngine ingestionEngine;
+    private final IngestionRunRepository ingestionRunRepository;
+    private final QuotaLedger quotaLedger;
+    private final SchedulerLockRepository schedulerLockRepository;
+    private final RecordReplayFilter recordReplayFilter;
+    private final FaultInjectionFilter faultInjectionFilter;
+    private final SyntheticChannelRepository syntheticChannelRepository;
 
     // Original ingest endpoint
     @PostMapping("/ingest/{platform}")
     @ResponseBody
     public String ingest(@PathVariable Platform platform, @RequestParam String handleOrUrl) {
         var connector = connectors.stream().filter(c -> c.platform() == platform).findFirst().orElseThrow();
-        var chOpt = connector.resolveAndHydrate(handleOrUrl);
+        var chOpt = QuotaScope.call(QuotaConsumer.SEARCH, () -> connector.resolveAndHydrate(handleOrUrl));
         if (chOpt.isEmpty()) return "Not found";
 
         // Save the channel
@@ -68,7 +87,7 @@ public class AdminController {
         if (connector == null) return "No connector for platform: " + channel.getPlatform();
 
         try {
-            var counters = connector.fetchCounters(channel.getPlatformId());
+            var counters = QuotaScope.call(QuotaConsumer.SEARCH, () -> connector.fetchCounters(channel.getPlatformId()));
             LocalDate today = LocalDate.now(ZoneOffset.UTC);
             statsService.snapshot(channel, counters, today);
             return "OK: Snapshot created for " + channel.getHandle() + " - " + counters;
@@ -77,34 +96,123 @@ public class AdminController {
         }
     }
 
-    // Manual snapshot for ALL channels (synchronous for backwards compatibility)
+    // Manual snapshot for ALL channels; runs in the background, follow it with GET /admin/runs?key=
     @PostMapping("/snapshot-all")
     @ResponseBody
     public String snapshotAll() {
         LocalDate today = LocalDate.now(ZoneOffset.UTC);
-        int processed = 0;
+        String runKey = "manual:" + Instant.now();
 
         for (PlatformConnector connector : connectors) {
-            var channels = channelRepo.findAll().stream()
-                    .filter(c -> c.getPlatform() == connector.platform())
-                    .toList();
+            // Ignores refresh tiers: every channel is fetched
+            ingestionEngine.runAsync(connector, runKey, today, null);
+        }
 
-            for (Channel channel : channels) {
-                try {
-                    var counters = connector.fetchCounters(channel.getPlatformId());
-                    statsService.snapshot(channel, counters, today);
-                    processed++;
+        return "OK: started run " + runKey + " for " + connectors.stream().map(PlatformConnector::platform).toList();
+    }
 
-                    // Small delay to be nice to APIs
-                    Thread.sleep(500);
-                } catch (Exception e) {
-                    // Continue with next channel on error
-                    System.err.println("Error processing " + channel.getHandle() + ": " + e.getMessage());
-                }
-            }
+    // Ingestion run status and progress: one run key, or the most recent runs
+    @GetMapping("/runs")
+    @ResponseBody
+    public String runs(@RequestParam(required = false) String key) {
+        var runs = key != null ? ingestionRunRepository.findByRunKeyOrderByPlatformAsc(key)
+                : ingestionRunRepository.findTop20ByOrderByStartedAtDesc();
+        if (runs.isEmpty()) return "No runs" + (key != null ? " for " + key : "") + " yet";
+        StringBuilder sb = new StringBuilder("Ingestion runs:\n");
+        for (var run : runs) {
+            sb.append("- ").append(run.getId()).append(" ").append(run.getRunKey()).append(" ").append(run.getPlatform())
+                    .append(": ").append(run.getStatus())
+                    .append(", ").append(run.getChannelsWritten()).append("/").append(run.getChannelsRead()).append(" channels written")
+                    .append(", ").append(run.getFailedBatches()).append(" failed batches")
+                    .append(", started ").append(run.getStartedAt());
+            if (run.getFinishedAt() != null) sb.append(", finished ").append(run.getFinishedAt());
+            sb.append("\n");
         }
+        return sb.toString();
+    }
+
+    // YouTube quota spent and remaining today, per consumer class
+    @GetMapping("/quota")
+    @ResponseBody
+    public String quota() {
+        StringBuilder sb = new StringBuilder("YouTube quota today (Pacific day):\n");
+        quotaLedger.spentToday().forEach((consumer, spent) -> sb.append("- ").append(consumer)
+                .append(": spent ").append(spent)
+                .append(", remaining ").append(quotaLedger.remaining(consumer)).append("\n"));
+        return sb.toString();
+    }
 
-        return "OK: Processed " + processed + " channels";
+    // Recent scheduled job firings: which node ran them and for how long
+    @GetMapping("/jobs")
+    @ResponseBody
+    public String jobs(@RequestParam(defaultValue = "50") int limit) {
+        StringBuilder sb = new StringBuilder("Recent scheduled jobs:\n");
+        for (var run : schedulerLockRepository.findRecentRuns(Math.min(limit, 500))) {
+            sb.append("- ").append(run.startedAt()).append(" ").append(run.jobName())
+                    .append(" on ").append(run.node())
+                    .append(": ").append(run.outcome()).append(" in ").append(run.durationMs()).append(" ms");
+            if (run.error() != null) sb.append(" (").append(run.error()).append(")");
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    // Record/replay state: mode, recorded channels and how many synthetic channels are seeded
+    @GetMapping("/fixtures")
+    @ResponseBody
+    public String fixtures() {
+        return "YouTube fixtures mode: " + recordReplayFilter.mode()
+                + "\n- recorded channels: " + recordReplayFilter.recordedChannels()
+                + "\n- synthetic channels seeded: " + syntheticChannelRepository.count(recordReplayFilter.syntheticIdPrefix())
+                + "\n- synthetic search range: " + recordReplayFilter.syntheticChannels();
+    }
+
+    // Seed synthetic channels for load tests; only in replay mode, where nothing calls the real API
+    @PostMapping("/fixtures/synthetic-channels")
+    @ResponseBody
+    public String seedSyntheticChannels(@RequestParam(defaultValue = "1000000") long count) {
+        if (recordReplayFilter.mode() != SocialProperties.FixtureMode.REPLAY) {
+            return "Refusing to seed synthetic channels outside replay mode (mode is " + recordReplayFilter.mode() + ")";
+        }
+        long inserted = syntheticChannelRepository.ensure(recordReplayFilter.syntheticIdPrefix(), count);
+        return "Synthetic channels: " + inserted + " inserted, " + count + " requested";
+    }
+
+    // Active fault-injection rules on outbound API calls
+    @GetMapping("/faults")
+    @ResponseBody
+    public String faults() {
+        if (!faultInjectionFilter.armed()) return "Fault injection is not enabled (social.faults.enabled=false)";
+        StringBuilder sb = new StringBuilder("Fault rules:\n");
+        faultInjectionFilter.rules().forEach((endpoint, rule) -> sb.append("- ").append(endpoint).append(": ").append(rule).append("\n"));
+        return sb.toString();
+    }
+
+    // Set the faults injected into one endpoint ("channels", "search", "users", ... or "*")
+    @PostMapping("/faults/{endpoint}")
+    @ResponseBody
+    public String setFault(@PathVariable String endpoint,
+                           @RequestParam(defaultValue = "0") long latencyMedianMs,
+                           @RequestParam(defaultValue = "0") long latencyP99Ms,
+                           @RequestParam(defaultValue = "0") double errorRate,
+                           @RequestParam(defaultValue = "0") double quotaRate,
+                           @RequestParam(defaultValue = "0") double stallRate) {
+        try {
+            faultInjectionFilter.setRule(endpoint,
+                    new SocialProperties.FaultRule(Duration.ofMillis(latencyMedianMs),
+                            Duration.ofMillis(latencyP99Ms), errorRate, quotaRate, stallRate));
+            return "Fault rule set for " + endpoint;
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            return "Fault rule not set: " + e.getMessage();
+        }
+    }
+
+    @PostMapping("/faults/clear")
+    @ResponseBody
+    public String clearFaults(@RequestParam(required = false) String endpoint) {
+        if (endpoint == null) faultInjectionFilter.clearRules();
+        else faultInjectionFilter.clearRule(endpoint);
+        return "Fault rules cleared" + (endpoint == null ? "" : " for " + endpoint);
     }
 
     // List all channels for debugging
@@ -158,7 +266,7 @@ public class AdminController {
             // Test resolveAndHydrate
             result.append("Testing resolveAndHydrate:\n");
             try {
-                var channel = youtubeConnector.resolveAndHydrate(handle);
+                var channel = QuotaScope.call(QuotaConsumer.SEARCH, () -> youtubeConnector.resolveAndHydrate(handle));
                 if (channel.isPresent()) {
                     var c = channel.get();
                     result.append("✅ Found channel!\n");
@@ -177,7 +285,7 @@ public class AdminController {
             // Test search
             result.append("\nTesting search API:\n");
             try {
-                var channels = youtubeConnector.search(handle, 5);
+                var channels = QuotaScope.call(QuotaConsumer.SEARCH, () -> youtubeConnector.search(handle, 5));
                 result.append("Found ").append(channels.size()).append(" channels via search\n");
                 for (var c : channels) {
                     result.append("- ").append(c.getTitle()).append(" (").append(c.getHandle()).append(")\n");
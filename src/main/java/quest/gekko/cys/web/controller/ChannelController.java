@@ -6,12 +6,22 @@ import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
+import quest.gekko.cys.repository.ChannelRepository;
 import quest.gekko.cys.repository.DailyStatRepository;
 import quest.gekko.cys.service.core.ChannelService;
+import quest.gekko.cys.service.core.DistributionService;
+import quest.gekko.cys.service.core.RankIndex;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.web.dto.RankNeighborhoodDTO;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
@@ -19,6 +29,13 @@ public class ChannelController {
     private final ChannelService channelService;
     private final DailyStatRepository statRepo;
     private final List<PlatformConnector> connectors;
+    private final ChannelRepository channelRepo;
+    private final RankIndex rankIndex;
+    private final DistributionService distributionService;
+
+    private static final int MAX_NEIGHBORS = 100;
+    // Only channels this close to the top get a percentile badge
+    private static final double BADGE_TOP_PERCENT = 10;
 
     // Fixed URL mapping to match what templates generate
     @GetMapping("/channel/{id}")
@@ -28,9 +45,29 @@ public class ChannelController {
         var history = statRepo.findByChannelIdOrderBySnapshotDateAsc(channel.getId());
         m.addAttribute("channel", channel);
         m.addAttribute("history", history);
+        String headline = RankingMetric.headline(channel.getPlatform());
+        neighborhood(channel, headline, 3).ifPresent(n -> {
+            m.addAttribute("rank", n);
+            distributionService.topPercent(channel.getPlatform(), headline, n.self().value())
+                    .filter(top -> top <= BADGE_TOP_PERCENT)
+                    .ifPresent(top -> m.addAttribute("topPercent", top));
+        });
         return "channel";
     }
 
+    /** Live rank on {@code metric} (default: the platform's headline counter) with {@code k} neighbours each side. */
+    @GetMapping("/channel/{id}/rank")
+    @ResponseBody
+    public RankNeighborhoodDTO rank(@PathVariable Long id,
+                                    @RequestParam(required = false) String metric,
+                                    @RequestParam(defaultValue = "5") int k) {
+        var channel = channelService.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        String name = metric != null ? metric : RankingMetric.headline(channel.getPlatform());
+        return neighborhood(channel, name, Math.clamp(k, 0, MAX_NEIGHBORS))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Channel is not ranked on " + name));
+    }
+
     // Keep the old endpoint for backward compatibility
     @GetMapping("/channels/{platform}/{handle}")
     public String viewByHandle(@PathVariable Platform platform, @PathVariable String handle, Model m) {
@@ -39,5 +76,12 @@ public class ChannelController {
         return "redirect:/channel/" + channel.getId();
     }
 
+    private Optional<RankNeighborhoodDTO> neighborhood(Channel channel, String metric, int k) {
+        return rankIndex.around(channel.getPlatform(), metric, channel.getId(), k).map(n -> {
+            Map<Long, Channel> channels = channelRepo.findAllById(RankNeighborhoodDTO.channelIds(n)).stream()
+                    .collect(Collectors.toMap(Channel::getId, Function.identity()));
+            return RankNeighborhoodDTO.of(n, channels);
+        });
+    }
 
 }
\ No newline at end of file
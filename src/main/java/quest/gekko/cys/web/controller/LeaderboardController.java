@@ -3,25 +3,77 @@ package quest.gekko.cys.web.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
 import quest.gekko.cys.repository.ChannelRepository;
+import quest.gekko.cys.service.core.DistributionService;
+import quest.gekko.cys.service.core.RankIndex;
+import quest.gekko.cys.service.core.RankingService;
 import quest.gekko.cys.web.dto.ChannelWithStatsDTO;
+import quest.gekko.cys.web.dto.DistributionDTO;
+import quest.gekko.cys.web.dto.RankNeighborhoodDTO;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 public class LeaderboardController {
     private final ChannelRepository channelRepo;
+    private final RankingService rankingService;
+    private final RankIndex rankIndex;
+    private final DistributionService distributionService;
+
+    private static final int MAX_TOP = 100;
+
+    /** Live top {@code k} on an absolute metric, straight from the in-memory rank index. */
+    @GetMapping("/leaderboard/top")
+    @ResponseBody
+    public List<RankNeighborhoodDTO.Entry> top(@RequestParam(defaultValue = "YOUTUBE") Platform platform,
+                                               @RequestParam(required = false) String metric,
+                                               @RequestParam(defaultValue = "10") int k) {
+        var top = rankIndex.top(platform, metric != null ? metric : RankingMetric.headline(platform),
+                Math.clamp(k, 1, MAX_TOP));
+        var channels = channelRepo.findAllById(top.stream().map(RankIndex.Position::channelId).toList()).stream()
+                .collect(Collectors.toMap(Channel::getId, Function.identity()));
+        return RankNeighborhoodDTO.entries(top, channels);
+    }
+
+    /** Latest daily distribution of a ranking metric: percentiles plus a log-bucketed histogram. */
+    @GetMapping("/leaderboard/distribution")
+    @ResponseBody
+    public DistributionDTO distribution(@RequestParam(defaultValue = "YOUTUBE") Platform platform,
+                                        @RequestParam(required = false) String metric) {
+        String name = metric != null ? metric : RankingMetric.headline(platform);
+        return distributionService.distribution(platform, name)
+                .map(d -> DistributionDTO.of(platform, name, d))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No distribution for " + name));
+    }
 
     @GetMapping("/leaderboard")
     public String leaderboard(@RequestParam(defaultValue = "YOUTUBE") Platform platform,
                               @RequestParam(defaultValue = "0") int page,
                               @RequestParam(defaultValue = "20") int size,
                               @RequestParam(required = false) String q,
+                              @RequestParam(required = false) String metric,
                               Model m) {
+        // Unknown or unconfigured metrics fall back to the platform's headline counter
+        var metrics = rankingService.metricsFor(platform);
+        RankingMetric selected = metrics.stream()
+                .filter(rm -> rm.name().equals(metric))
+                .findFirst()
+                .orElseGet(() -> RankingMetric.parse(RankingMetric.headline(platform), platform));
+        m.addAttribute("metrics", metrics);
+        m.addAttribute("metric", selected);
         try {
             Page<ChannelWithStatsDTO> p;
 
@@ -31,8 +83,13 @@ public class LeaderboardController {
                 m.addAttribute("q", q);
                 m.addAttribute("isSearch", true);
             } else {
-                // Regular leaderboard
-                p = channelRepo.leaderboard(platform.name(), PageRequest.of(page, size));
+                // Stored ranking, paged in the database; before the first ranking run only the
+                // headline counter can be shown, sorted on the fly
+                p = channelRepo.ranked(platform.name(), selected.name(), PageRequest.of(page, size));
+                if (p.getTotalElements() == 0 && !selected.isGrowth()
+                        && selected.column().equals(RankingMetric.headline(platform))) {
+                    p = channelRepo.leaderboard(platform.name(), PageRequest.of(page, size));
+                }
                 m.addAttribute("isSearch", false);
             }
 
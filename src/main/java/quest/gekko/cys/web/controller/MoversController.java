@@ -0,0 +1,68 @@
+package quest.gekko.cys.web.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.server.ResponseStatusException;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RankingMetric;
+import quest.gekko.cys.repository.RankDeltaRepository;
+import quest.gekko.cys.service.core.RankingService;
+import quest.gekko.cys.web.dto.MoversDTO;
+
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class MoversController {
+    private static final int MAX_LIMIT = 100;
+
+    private final RankDeltaRepository rankDeltaRepo;
+    private final RankingService rankingService;
+
+    @GetMapping("/movers")
+    public String movers(@RequestParam(defaultValue = "YOUTUBE") Platform platform,
+                         @RequestParam(required = false) String metric,
+                         @RequestParam(defaultValue = "7") int window,
+                         @RequestParam(defaultValue = "25") int limit,
+                         Model m) {
+        var metrics = rankingService.metricsFor(platform);
+        // Unknown metrics and windows fall back to the defaults rather than erroring on a page view
+        String selected = metrics.stream().map(RankingMetric::name).filter(name -> name.equals(metric)).findFirst()
+                .orElse(RankingMetric.headline(platform));
+        int days = RankDeltaRepository.WINDOWS.contains(window) ? window : 7;
+        m.addAttribute("platform", platform);
+        m.addAttribute("metrics", metrics);
+        m.addAttribute("metric", selected);
+        m.addAttribute("windows", RankDeltaRepository.WINDOWS);
+        m.addAttribute("window", days);
+        m.addAttribute("movers", load(platform, selected, days, limit));
+        return "movers";
+    }
+
+    /** Top gainers and losers as JSON; reads the latest day's {@code rank_delta}. */
+    @GetMapping("/movers/top")
+    @ResponseBody
+    public MoversDTO top(@RequestParam(defaultValue = "YOUTUBE") Platform platform,
+                         @RequestParam(required = false) String metric,
+                         @RequestParam(defaultValue = "7") int window,
+                         @RequestParam(defaultValue = "25") int limit) {
+        if (!RankDeltaRepository.WINDOWS.contains(window)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be one of " + RankDeltaRepository.WINDOWS);
+        }
+        return load(platform, metric != null ? metric : RankingMetric.headline(platform), window, limit);
+    }
+
+    private MoversDTO load(Platform platform, String metric, int window, int limit) {
+        int n = Math.clamp(limit, 1, MAX_LIMIT);
+        return rankDeltaRepo.latestDate(platform, metric)
+                .map(date -> new MoversDTO(platform, metric, window, date,
+                        rankDeltaRepo.movers(platform, metric, date, window, true, n),
+                        rankDeltaRepo.movers(platform, metric, date, window, false, n)))
+                .orElseGet(() -> new MoversDTO(platform, metric, window, null, List.of(), List.of()));
+    }
+}
@@ -10,9 +10,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import quest.gekko.cys.domain.Channel;
 import quest.gekko.cys.domain.Platform;
 import quest.gekko.cys.repository.ChannelRepository;
+import quest.gekko.cys.service.core.ChannelResolver;
 import quest.gekko.cys.service.core.ChannelService;
 import quest.gekko.cys.service.discovery.SmartDiscoveryService;
 import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaScope;
 import quest.gekko.cys.web.dto.ChannelWithStatsDTO;
 
 import java.util.Map;
@@ -24,6 +27,7 @@ public class SearchController {
 
     private final Map<Platform, PlatformConnector> connectorsByPlatform;
     private final ChannelService channelService;
+    private final ChannelResolver channelResolver;
     private final ChannelRepository channelRepo;
     private final SmartDiscoveryService smartDiscoveryService;
 
@@ -70,10 +74,10 @@ public class SearchController {
         System.out.println("🌐 No database results, attempting to discover: " + q);
 
         // Check if it's a specific handle or URL that should resolve to one channel
-        if (q.startsWith("@") || q.startsWith("http") || q.contains("youtube.com/") || q.contains("youtu.be/")) {
+        if (q.startsWith("@") || q.startsWith("http") || q.contains("youtube.com/") || q.contains("youtu.be/") || q.contains("twitch.tv/")) {
             System.out.println("🎯 Attempting to resolve specific channel: " + q);
             try {
-                Optional<Channel> discovered = connector.resolveAndHydrate(q);
+                Optional<Channel> discovered = QuotaScope.call(QuotaConsumer.SEARCH, () -> channelResolver.resolve(platform, q));
                 if (discovered.isPresent()) {
                     // Save the discovered channel
                     Channel saved = channelService.upsertChannel(discovered.get());
@@ -91,7 +95,7 @@ public class SearchController {
         // THIRD: Try broader search to discover new channels
         System.out.println("🔍 Attempting broader search discovery for: " + q);
         try {
-            var discoveredChannels = connector.search(q, Math.max(size, 10));
+            var discoveredChannels = QuotaScope.call(QuotaConsumer.SEARCH, () -> connector.search(q, Math.max(size, 10)));
             System.out.println("📡 API search returned " + discoveredChannels.size() + " channels");
 
             // Save discovered channels to database
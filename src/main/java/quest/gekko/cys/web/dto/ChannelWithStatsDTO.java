@@ -15,6 +15,9 @@ public class ChannelWithStatsDTO {
     private final Long followers;
     private final Long views;
     private final Long videos;
+    // Set when the row comes from a stored ranking
+    private final Integer rank;
+    private final Long metricValue;
 
     public ChannelWithStatsDTO(Long id, Platform platform, String handle, String title, String avatarUrl,
                                Long subscribers, Long followers, Long views, Long videos) {
@@ -27,6 +30,8 @@ public class ChannelWithStatsDTO {
         this.followers = followers;
         this.views = views;
         this.videos = videos;
+        this.rank = null;
+        this.metricValue = null;
     }
 
     // Constructor for SQL result mapping
@@ -40,6 +45,8 @@ public class ChannelWithStatsDTO {
         this.followers = row[6] != null ? ((Number) row[6]).longValue() : 0L;
         this.views = row[7] != null ? ((Number) row[7]).longValue() : 0L;
         this.videos = row[8] != null ? ((Number) row[8]).longValue() : 0L;
+        this.rank = row.length > 9 && row[9] != null ? ((Number) row[9]).intValue() : null;
+        this.metricValue = row.length > 10 && row[10] != null ? ((Number) row[10]).longValue() : null;
     }
 
     // Getters for Thymeleaf access
@@ -52,6 +59,8 @@ public class ChannelWithStatsDTO {
     public Long getFollowers() { return followers; }
     public Long getViews() { return views; }
     public Long getVideos() { return videos; }
+    public Integer getRank() { return rank; }
+    public Long getMetricValue() { return metricValue; }
 
     // For interface compatibility (can be removed once all usage is updated)
     public Long id() { return id; }
@@ -63,4 +72,6 @@ public class ChannelWithStatsDTO {
     public Long followers() { return followers; }
     public Long views() { return views; }
     public Long videos() { return videos; }
+    public Integer rank() { return rank; }
+    public Long metricValue() { return metricValue; }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package quest.gekko.cys.web.dto;
+
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.service.core.DistributionService;
+import quest.gekko.cys.util.LogHistogram;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A metric's distribution across a platform: headline percentiles and a histogram with one bar
+ * per power of two.
+ */
+public record DistributionDTO(Platform platform, String metric, LocalDate snapshotDate, long count, long min, long max,
+                              Map<String, Long> percentiles, List<LogHistogram.Bucket> buckets) {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static DistributionDTO of(Platform platform, String metric, DistributionService.Distribution d) {
+        LogHistogram h = d.histogram();
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            percentiles.put("p" + (p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p)), h.valueAt(p));
+        }
+        return new DistributionDTO(platform, metric, d.snapshotDate(), h.count(), h.min(), h.max(), percentiles, h.octaves());
+    }
+}
@@ -0,0 +1,13 @@
+package quest.gekko.cys.web.dto;
+
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.RankDeltaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Biggest climbers and fallers on one ranking over a look-back window.
+ */
+public record MoversDTO(Platform platform, String metric, int windowDays, LocalDate snapshotDate,
+                        List<RankDeltaRepository.Mover> gainers, List<RankDeltaRepository.Mover> losers) {}
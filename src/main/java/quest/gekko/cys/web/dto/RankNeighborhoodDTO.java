@@ -0,0 +1,43 @@
+package quest.gekko.cys.web.dto;
+
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.service.core.RankIndex;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * A channel's live rank on one metric with the channels directly above and below it.
+ */
+public record RankNeighborhoodDTO(String metric, int total, Entry self, List<Entry> above, List<Entry> below) {
+
+    public record Entry(long channelId, String title, String handle, int rank, long value) {
+
+        static Entry of(RankIndex.Position position, Map<Long, Channel> channels) {
+            Channel channel = channels.get(position.channelId());
+            return new Entry(position.channelId(),
+                    channel != null ? channel.getTitle() : null,
+                    channel != null ? channel.getHandle() : null,
+                    position.rank(), position.value());
+        }
+    }
+
+    /** Channel ids needed to label every entry of the neighbourhood. */
+    public static List<Long> channelIds(RankIndex.Neighborhood n) {
+        return Stream.of(n.above().stream(), Stream.of(n.self()), n.below().stream())
+                .flatMap(s -> s)
+                .map(RankIndex.Position::channelId)
+                .toList();
+    }
+
+    public static RankNeighborhoodDTO of(RankIndex.Neighborhood n, Map<Long, Channel> channels) {
+        return new RankNeighborhoodDTO(n.metric(), n.total(), Entry.of(n.self(), channels),
+                n.above().stream().map(p -> Entry.of(p, channels)).toList(),
+                n.below().stream().map(p -> Entry.of(p, channels)).toList());
+    }
+
+    public static List<Entry> entries(List<RankIndex.Position> positions, Map<Long, Channel> channels) {
+        return positions.stream().map(p -> Entry.of(p, channels)).toList();
+    }
+}
@@ -0,0 +1,2 @@
+-- The value each rank was computed from, so leaderboards can show it without re-deriving growth.
+ALTER TABLE rank_snapshot ADD COLUMN IF NOT EXISTS value BIGINT;
@@ -0,0 +1,9 @@
+-- One serialized LogHistogram per platform, metric and day, built from that day's rank_snapshot values.
+CREATE TABLE IF NOT EXISTS metric_distribution (
+    snapshot_date DATE NOT NULL,
+    platform TEXT NOT NULL,
+    metric TEXT NOT NULL,
+    sample_count BIGINT NOT NULL,
+    sketch BYTEA NOT NULL,
+    PRIMARY KEY (snapshot_date, platform, metric)
+);
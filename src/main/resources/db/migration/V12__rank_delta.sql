@@ -0,0 +1,21 @@
+-- Rank changes per channel, written at the end of each ranking run so movers are a range scan.
+-- delta_Nd = rank N days ago - rank today: positive means the channel climbed.
+CREATE TABLE IF NOT EXISTS rank_delta (
+    platform TEXT NOT NULL,
+    metric TEXT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    channel_id BIGINT NOT NULL REFERENCES channel(id) ON DELETE CASCADE,
+    rank INT NOT NULL,
+    rank_1d INT,
+    rank_7d INT,
+    rank_30d INT,
+    delta_1d INT,
+    delta_7d INT,
+    delta_30d INT,
+    PRIMARY KEY (platform, metric, snapshot_date, channel_id)
+);
+
+-- One index per window serves both gainers (scanned backwards) and losers (forwards)
+CREATE INDEX IF NOT EXISTS idx_rank_delta_1d ON rank_delta (platform, metric, snapshot_date, delta_1d) WHERE delta_1d IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_rank_delta_7d ON rank_delta (platform, metric, snapshot_date, delta_7d) WHERE delta_7d IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_rank_delta_30d ON rank_delta (platform, metric, snapshot_date, delta_30d) WHERE delta_30d IS NOT NULL;
@@ -0,0 +1,7 @@
+-- YouTube API quota units spent per quota day (midnight Pacific) and consumer, shared by every node
+CREATE TABLE IF NOT EXISTS quota_spend (
+    quota_day DATE NOT NULL,
+    consumer TEXT NOT NULL,
+    units BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (quota_day, consumer)
+);
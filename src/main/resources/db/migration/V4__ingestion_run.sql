@@ -0,0 +1,18 @@
+-- Checkpointed ingestion runs so an interrupted snapshot can resume where it stopped.
+CREATE TABLE IF NOT EXISTS ingestion_run (
+    id BIGSERIAL PRIMARY KEY,
+    run_key TEXT NOT NULL,
+    platform TEXT NOT NULL,
+    snapshot_date DATE NOT NULL,
+    status TEXT NOT NULL,
+    cursor_channel_id BIGINT NOT NULL DEFAULT 0,
+    channels_read BIGINT NOT NULL DEFAULT 0,
+    channels_written BIGINT NOT NULL DEFAULT 0,
+    failed_batches BIGINT NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP NOT NULL DEFAULT now(),
+    finished_at TIMESTAMP,
+    UNIQUE (run_key, platform)
+);
+
+CREATE INDEX IF NOT EXISTS idx_ingestion_run_status ON ingestion_run (status, snapshot_date);
@@ -0,0 +1,8 @@
+-- Refresh tiers: how often a channel's counters are worth fetching.
+ALTER TABLE channel ADD COLUMN IF NOT EXISTS refresh_tier TEXT NOT NULL DEFAULT 'DAILY';
+ALTER TABLE channel ADD COLUMN IF NOT EXISTS next_refresh_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_channel_platform_next_refresh ON channel (platform, next_refresh_at);
+
+-- Runs only pick up channels due before this instant; NULL means every channel.
+ALTER TABLE ingestion_run ADD COLUMN IF NOT EXISTS due_before TIMESTAMP;
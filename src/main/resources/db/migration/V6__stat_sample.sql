@@ -0,0 +1,19 @@
+-- Append-only intraday samples for fast-moving channels; rolled up into daily_stat.
+CREATE TABLE IF NOT EXISTS stat_sample (
+    id BIGSERIAL PRIMARY KEY,
+    channel_id BIGINT NOT NULL REFERENCES channel(id) ON DELETE CASCADE,
+    sampled_at TIMESTAMPTZ NOT NULL,
+    subscribers BIGINT,
+    views BIGINT,
+    videos BIGINT,
+    followers BIGINT,
+    live_views BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_stat_sample_channel_time ON stat_sample (channel_id, sampled_at);
+CREATE INDEX IF NOT EXISTS idx_stat_sample_time ON stat_sample (sampled_at);
+
+-- Intraday extremes kept on the daily row once samples are rolled up
+ALTER TABLE daily_stat ADD COLUMN IF NOT EXISTS live_views_min BIGINT;
+ALTER TABLE daily_stat ADD COLUMN IF NOT EXISTS live_views_peak BIGINT;
+ALTER TABLE daily_stat ADD COLUMN IF NOT EXISTS sample_count INT;
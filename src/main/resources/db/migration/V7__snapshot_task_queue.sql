@@ -0,0 +1,20 @@
+-- Work queue for ingestion runs: each task is a contiguous id range of channels. Any node can
+-- claim tasks with FOR UPDATE SKIP LOCKED; a lease that expires makes the task claimable again.
+CREATE TABLE IF NOT EXISTS snapshot_task (
+    id BIGSERIAL PRIMARY KEY,
+    run_id BIGINT NOT NULL REFERENCES ingestion_run(id) ON DELETE CASCADE,
+    first_channel_id BIGINT NOT NULL,
+    last_channel_id BIGINT NOT NULL,
+    status TEXT NOT NULL DEFAULT 'PENDING',
+    lease_owner TEXT,
+    lease_expires_at TIMESTAMPTZ,
+    attempts INT NOT NULL DEFAULT 0,
+    finished_at TIMESTAMPTZ,
+    UNIQUE (run_id, first_channel_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_snapshot_task_claim ON snapshot_task (run_id, status, id);
+
+-- Progress is tracked per task now; the run only records when its tasks were enqueued.
+ALTER TABLE ingestion_run DROP COLUMN IF EXISTS cursor_channel_id;
+ALTER TABLE ingestion_run ADD COLUMN IF NOT EXISTS enqueued_at TIMESTAMP;
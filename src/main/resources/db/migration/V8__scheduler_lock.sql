@@ -0,0 +1,23 @@
+-- Cluster-wide locks for scheduled jobs: a firing only runs on the node that moves locked_until
+-- forward. The TTL frees the lock if that node dies mid-job.
+CREATE TABLE IF NOT EXISTS scheduler_lock (
+    name TEXT PRIMARY KEY,
+    locked_until TIMESTAMPTZ NOT NULL,
+    locked_at TIMESTAMPTZ NOT NULL,
+    locked_by TEXT NOT NULL
+);
+
+-- Who ran each firing and how long it took
+CREATE TABLE IF NOT EXISTS scheduled_job_run (
+    id BIGSERIAL PRIMARY KEY,
+    job_name TEXT NOT NULL,
+    node TEXT NOT NULL,
+    started_at TIMESTAMPTZ NOT NULL,
+    finished_at TIMESTAMPTZ NOT NULL,
+    duration_ms BIGINT NOT NULL,
+    outcome TEXT NOT NULL,
+    error TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_run_job ON scheduled_job_run (job_name, started_at DESC);
+CREATE INDEX IF NOT EXISTS idx_scheduled_job_run_started ON scheduled_job_run (started_at DESC);
@@ -0,0 +1,2 @@
+-- Rankings are replaced and read one (day, platform, metric) partition at a time, in rank order.
+CREATE INDEX IF NOT EXISTS idx_rank_snapshot_partition ON rank_snapshot (snapshot_date, platform, metric, rank);
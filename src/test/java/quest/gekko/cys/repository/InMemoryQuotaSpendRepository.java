@@ -0,0 +1,34 @@
+package quest.gekko.cys.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/** {@link QuotaSpendRepository} in memory; share one instance between ledgers to stand in for the table. */
+public class InMemoryQuotaSpendRepository extends QuotaSpendRepository {
+    private final Map<LocalDate, Map<String, Long>> days = new HashMap<>();
+
+    public InMemoryQuotaSpendRepository() {
+        super(null);
+    }
+
+    @Override
+    public synchronized void openDay(LocalDate quotaDay, Collection<String> consumers) {
+        Map<String, Long> day = days.computeIfAbsent(quotaDay, d -> new HashMap<>());
+        consumers.forEach(c -> day.putIfAbsent(c, 0L));
+    }
+
+    @Override
+    public synchronized Map<String, Long> spent(LocalDate quotaDay) {
+        return new HashMap<>(days.getOrDefault(quotaDay, Map.of()));
+    }
+
+    @Override
+    public synchronized boolean charge(LocalDate quotaDay, String consumer, long units, Predicate<Map<String, Long>> allowed) {
+        if (!allowed.test(spent(quotaDay))) return false;
+        days.computeIfAbsent(quotaDay, d -> new HashMap<>()).merge(consumer, units, Long::sum);
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package quest.gekko.cys.service.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.repository.DailyStatBatchWriter;
+import quest.gekko.cys.repository.LatestStatReader;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows reach the index out of order when a resumed run for an earlier day commits after a newer
+ * refresh; the index has to keep showing the newest row per channel.
+ */
+class RankIndexTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 8, 14);
+
+    private RankIndex rankIndex;
+
+    @BeforeEach
+    void setUp() {
+        // Channel 1 has 100 subscribers as of today, channel 2 has 200
+        LatestStatReader reader = new LatestStatReader(null) {
+            @Override
+            public long forEachLatest(Platform platform, Consumer<Latest> handler) {
+                handler.accept(new Latest(1, TODAY, 100, 0, 0, 0, 0));
+                handler.accept(new Latest(2, TODAY, 200, 0, 0, 0, 0));
+                return 2;
+            }
+        };
+        var ranking = new IngestionProperties.Ranking(Map.of(Platform.YOUTUBE, List.of("subscribers")));
+        rankIndex = new RankIndex(reader, new RankingService(null, null, ranking));
+        rankIndex.rebuild(Platform.YOUTUBE);
+    }
+
+    @Test
+    void olderRowsThanTheChannelShowsAreIgnored() {
+        write(1, TODAY.minusDays(1), 300);
+        assertThat(subscribers(1)).isEqualTo(100);
+        assertThat(rank(1)).isEqualTo(2);
+
+        write(1, TODAY, 300);
+        assertThat(subscribers(1)).isEqualTo(300);
+        assertThat(rank(1)).isEqualTo(1);
+
+        write(1, TODAY.plusDays(1), 150);
+        write(1, TODAY, 400);
+        assertThat(subscribers(1)).isEqualTo(150);
+    }
+
+    @Test
+    void newChannelsAreAddedWhateverTheirDate() {
+        write(3, TODAY.minusDays(1), 50);
+        assertThat(rank(3)).isEqualTo(3);
+    }
+
+    private void write(long channelId, LocalDate date, long subscribers) {
+        rankIndex.onStatsWritten(new StatsWrittenEvent(Platform.YOUTUBE,
+                List.of(new DailyStatBatchWriter.Row(channelId, date, Map.of("subscribers", subscribers)))));
+    }
+
+    private long subscribers(long channelId) {
+        return rankIndex.rankOf(Platform.YOUTUBE, "subscribers", channelId).orElseThrow().value();
+    }
+
+    private int rank(long channelId) {
+        return rankIndex.rankOf(Platform.YOUTUBE, "subscribers", channelId).orElseThrow().rank();
+    }
+}
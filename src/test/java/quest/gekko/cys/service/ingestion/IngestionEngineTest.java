@@ -0,0 +1,214 @@
+package quest.gekko.cys.service.ingestion;
+
+import org.junit.jupiter.api.Test;
+import quest.gekko.cys.config.IngestionProperties;
+import quest.gekko.cys.domain.Channel;
+import quest.gekko.cys.domain.IngestionRun;
+import quest.gekko.cys.domain.Platform;
+import quest.gekko.cys.domain.RefreshTier;
+import quest.gekko.cys.repository.SnapshotTaskRepository.Task;
+import quest.gekko.cys.service.integration.connector.PlatformConnector;
+import quest.gekko.cys.service.integration.quota.QuotaConsumer;
+import quest.gekko.cys.service.integration.quota.QuotaExceededException;
+import quest.gekko.cys.service.integration.quota.YouTubeEndpoint;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Runs the pipeline against stubbed task storage and upstreams that stall, fail or run out of
+ * quota. The queue holds a single batch and commits are slow, so fetchers and the final
+ * end-of-run marker all have to wait for the writer; a pipeline that lost track of a batch
+ * would hang and miss the deadline.
+ */
+class IngestionEngineTest {
+    private static final int TASKS = 6;
+    private static final int CHANNELS_PER_TASK = 20;
+    private static final int BATCH_SIZE = 5;
+    private static final Duration DEADLINE = Duration.ofSeconds(15);
+
+    private final StubRunService runService = new StubRunService();
+    private final IngestionEngine engine = new IngestionEngine(new StubChunkReader(), runService,
+            new IngestionProperties.Engine(500, BATCH_SIZE, 1, 4, Map.of()),
+            new IngestionProperties.Queue(CHANNELS_PER_TASK, 2, Duration.ofMinutes(5), Duration.ofMillis(10)),
+            new IngestionProperties.Sampling(Set.of(), Duration.ofDays(14)));
+
+    @Test
+    void stalledAndFailingBatchesAreCountedAndTheRunCompletes() {
+        // First batch of every task stalls until its call times out, second fails outright
+        PlatformConnector connector = connector(ids -> {
+            long first = Long.parseLong(ids.iterator().next());
+            if (first % CHANNELS_PER_TASK == 1) {
+                sleep(300);
+                throw new IllegalStateException("Timed out");
+            }
+            if (first % CHANNELS_PER_TASK == 1 + BATCH_SIZE) throw new IllegalStateException("503");
+            return counters(ids);
+        });
+
+        IngestionEngine.RunResult result = assertTimeoutPreemptively(DEADLINE,
+                () -> engine.work(connector, runService.run, true));
+
+        assertThat(result.status()).isEqualTo(IngestionRun.Status.COMPLETED);
+        assertThat(runService.completed).hasSize(TASKS);
+        assertThat(runService.released).isEmpty();
+        assertThat(runService.failedBatches).hasValue(2 * TASKS);
+        assertThat(runService.rowsWritten).hasValue(TASKS * (CHANNELS_PER_TASK - 2 * BATCH_SIZE));
+    }
+
+    @Test
+    void quotaRunningOutReleasesDeferredTasksAndStops() {
+        AtomicInteger calls = new AtomicInteger();
+        PlatformConnector connector = connector(ids -> {
+            if (calls.incrementAndGet() > 6) throw new QuotaExceededException(QuotaConsumer.INGESTION, YouTubeEndpoint.CHANNELS_LIST);
+            sleep(20);
+            return counters(ids);
+        });
+
+        IngestionEngine.RunResult result = assertTimeoutPreemptively(DEADLINE,
+                () -> engine.work(connector, runService.run, true));
+
+        // Tasks with a deferred batch go back unwritten; none is both released and committed
+        assertThat(result.status()).isEqualTo(IngestionRun.Status.RUNNING);
+        assertThat(runService.released).isNotEmpty().doesNotContainAnyElementsOf(runService.completed);
+        assertThat(runService.leased).isEmpty();
+        assertThat(runService.rowsWritten).hasValue(runService.completed.size() * CHANNELS_PER_TASK);
+        assertThat(runService.open).hasSize(TASKS - runService.completed.size());
+    }
+
+    private static PlatformConnector connector(Function<Collection<String>, Map<String, Map<String, Long>>> fetch) {
+        return new PlatformConnector() {
+            @Override
+            public Platform platform() { return Platform.YOUTUBE; }
+
+            @Override
+            public Optional<Channel> resolveAndHydrate(String handleOrUrl) { return Optional.empty(); }
+
+            @Override
+            public Map<String, Long> fetchCounters(String platformId) { return Map.of(); }
+
+            @Override
+            public Map<String, Map<String, Long>> fetchCounters(Collection<String> platformIds) {
+                return fetch.apply(platformIds);
+            }
+        };
+    }
+
+    private static Map<String, Map<String, Long>> counters(Collection<String> ids) {
+        Map<String, Map<String, Long>> counters = new LinkedHashMap<>();
+        ids.forEach(id -> counters.put(id, Map.of("subscribers", 1000L)));
+        return counters;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Channel n has id n and platform id "n". */
+    private static final class StubChunkReader extends ChannelChunkReader {
+        StubChunkReader() {
+            super(null);
+        }
+
+        @Override
+        public long forEachChunk(Platform platform, long afterId, long upToId, Instant dueBefore, int chunkSize,
+                                 Consumer<List<Channel>> handler) {
+            List<Channel> channels = new ArrayList<>();
+            for (long id = afterId + 1; id <= upToId; id++) {
+                Channel channel = new Channel();
+                channel.setId(id);
+                channel.setPlatform(platform);
+                channel.setPlatformId(Long.toString(id));
+                channel.setRefreshTier(RefreshTier.DAILY);
+                channels.add(channel);
+            }
+            handler.accept(channels);
+            return channels.size();
+        }
+    }
+
+    /** The task queue and run row in memory, with commits slow enough to back the queue up. */
+    private static final class StubRunService extends IngestionRunService {
+        final IngestionRun run = new IngestionRun();
+        final Deque<Task> open = new ArrayDeque<>();
+        final Set<Long> leased = new HashSet<>();
+        final List<Long> completed = new ArrayList<>();
+        final List<Long> released = new ArrayList<>();
+        final AtomicInteger failedBatches = new AtomicInteger();
+        final AtomicInteger rowsWritten = new AtomicInteger();
+
+        StubRunService() {
+            super(null, null, null, null, null, null);
+            run.setId(1L);
+            run.setRunKey("test");
+            run.setPlatform(Platform.YOUTUBE);
+            run.setSnapshotDate(LocalDate.of(2025, 8, 14));
+            for (int t = 0; t < TASKS; t++) {
+                open.add(new Task(t + 1, 1, (long) t * CHANNELS_PER_TASK + 1, (long) (t + 1) * CHANNELS_PER_TASK));
+            }
+        }
+
+        @Override
+        public synchronized List<Task> claim(Long runId, int limit) {
+            List<Task> tasks = new ArrayList<>();
+            while (tasks.size() < limit && !open.isEmpty()) {
+                Task task = open.poll();
+                leased.add(task.id());
+                tasks.add(task);
+            }
+            return tasks;
+        }
+
+        @Override
+        public synchronized void release(Task task) {
+            leased.remove(task.id());
+            released.add(task.id());
+            open.add(task);
+        }
+
+        @Override
+        public int complete(Task task, Commit commit) {
+            sleep(5);
+            synchronized (this) {
+                leased.remove(task.id());
+                completed.add(task.id());
+                failedBatches.addAndGet((int) commit.failedBatches());
+                rowsWritten.addAndGet(commit.rows().size());
+                return commit.rows().size();
+            }
+        }
+
+        @Override
+        public synchronized boolean tryComplete(Long runId) {
+            if (!open.isEmpty() || !leased.isEmpty()) return false;
+            run.setStatus(IngestionRun.Status.COMPLETED);
+            return true;
+        }
+
+        @Override
+        public IngestionRun get(Long runId) {
+            return run;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package quest.gekko.cys.service.integration.connector;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.repository.InMemoryQuotaSpendRepository;
+import quest.gekko.cys.service.integration.http.FaultInjectionFilter;
+import quest.gekko.cys.service.integration.http.OutboundGovernors;
+import quest.gekko.cys.service.integration.http.RecordReplayFilter;
+import quest.gekko.cys.service.integration.quota.QuotaLedger;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the real connector, governor and WebClient filters against replayed YouTube responses
+ * with injected faults. Callers block on a small fixed pool, the way discovery and ingestion do,
+ * so a fault that pinned threads would show up as tasks missing the deadline.
+ */
+class YouTubeConnectorFaultTest {
+    // Same ceiling as discoveryExecutor's max pool size
+    private static final int CALLER_THREADS = 8;
+    private static final int MAX_LIMIT = 16;
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration BREAKER_OPEN_FOR = Duration.ofMillis(500);
+
+    @TempDir
+    Path fixtures;
+
+    private MeterRegistry meterRegistry;
+    private FaultInjectionFilter faults;
+    private YouTubeConnector connector;
+    private ExecutorService callers;
+
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private record Outcome(int succeeded, int failed, boolean allFinished) {}
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        faults = new FaultInjectionFilter(new SocialProperties.Faults(true, Map.of()), meterRegistry);
+        var replay = new RecordReplayFilter(new SocialProperties.Fixtures(SocialProperties.FixtureMode.REPLAY,
+                fixtures, Duration.ofMillis(2), Duration.ofMillis(1), 1_000_000), new ObjectMapper(), meterRegistry);
+
+        // Counts attempts that get past the governor and how many are open at once
+        ExchangeFilterFunction upstream = (request, next) -> next.exchange(request)
+                .doOnSubscribe(s -> {
+                    attempts.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                })
+                .doFinally(s -> inFlight.decrementAndGet());
+
+        WebClient http = WebClient.builder().filter(upstream).filter(faults).filter(replay).build();
+        var outbound = new SocialProperties.Outbound(8, 1, MAX_LIMIT, Duration.ofSeconds(1), 50, CALL_TIMEOUT,
+                3, Duration.ofMillis(10), Duration.ofMillis(200), 50, 20, 0.5, BREAKER_OPEN_FOR);
+        var ledger = new QuotaLedger(new SocialProperties.YouTubeQuota(1_000_000, 0.5, 0.3),
+                new InMemoryQuotaSpendRepository(), meterRegistry);
+
+        connector = new YouTubeConnector(http, ledger, new OutboundGovernors(outbound, meterRegistry));
+        connector.apiKey = "replay";
+        callers = Executors.newFixedThreadPool(CALLER_THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void healthyUpstreamServesEveryBatch() throws Exception {
+        Outcome outcome = run(100, Duration.ofSeconds(20));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.succeeded()).isEqualTo(100);
+        assertThat(attempts.get()).isEqualTo(100);
+    }
+
+    @Test
+    void transientServerErrorsAreRetriedAway() throws Exception {
+        faults.setRule("channels", rule(Duration.ofMillis(5), Duration.ofMillis(50), 0.15, 0, 0));
+
+        Outcome outcome = run(200, Duration.ofSeconds(30));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.succeeded()).isGreaterThanOrEqualTo(190);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(MAX_LIMIT);
+    }
+
+    @Test
+    void stalledConnectionsTimeOutInsteadOfPinningThreads() throws Exception {
+        faults.setRule("channels", rule(Duration.ZERO, Duration.ZERO, 0, 0, 1.0));
+
+        Outcome outcome = run(40, Duration.ofSeconds(20));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.failed()).isEqualTo(40);
+        // Every stalled exchange was cancelled and every permit handed back
+        assertThat(inFlight.get()).isZero();
+        assertThat(gauge("outbound.inflight")).isZero();
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(MAX_LIMIT);
+    }
+
+    @Test
+    void persistentOutageOpensBreakerAndFailsFast() throws Exception {
+        faults.setRule("channels", rule(Duration.ofMillis(5), Duration.ZERO, 1.0, 0, 0));
+
+        Outcome outcome = run(100, Duration.ofSeconds(20));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.failed()).isEqualTo(100);
+        // Without the breaker every call would have made three attempts
+        assertThat(attempts.get()).isLessThan(100);
+        assertThat(meterRegistry.find("outbound.rejected").tag("reason", "circuit-open").counter()).isNotNull();
+    }
+
+    @Test
+    void recoversOnceOutageEnds() throws Exception {
+        faults.setRule("channels", rule(Duration.ZERO, Duration.ZERO, 1.0, 0, 0));
+        run(30, Duration.ofSeconds(20));
+
+        faults.clearRules();
+        Thread.sleep(BREAKER_OPEN_FOR.toMillis() + 100);
+        // Half-open lets a single probe through; its success closes the breaker
+        assertThat(connector.fetchCounters("UCsynth00000000000000001")).isNotEmpty();
+        assertThat(gauge("outbound.breaker.state")).isZero();
+
+        Outcome outcome = run(50, Duration.ofSeconds(20));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.succeeded()).isEqualTo(50);
+    }
+
+    @Test
+    void quotaErrorsAreNotRetriedAndDoNotTripBreaker() throws Exception {
+        faults.setRule("channels", rule(Duration.ZERO, Duration.ZERO, 0, 1.0, 0));
+
+        Outcome outcome = run(50, Duration.ofSeconds(20));
+
+        assertThat(outcome.allFinished()).isTrue();
+        assertThat(outcome.failed()).isEqualTo(50);
+        assertThat(attempts.get()).isEqualTo(50);
+        assertThat(gauge("outbound.breaker.state")).isZero();
+    }
+
+    /** Submit {@code tasks} blocking 50-channel counter lookups and wait up to {@code deadline} for all of them. */
+    private Outcome run(int tasks, Duration deadline) throws InterruptedException {
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < tasks; t++) {
+            List<String> ids = IntStream.range(0, 50)
+                    .mapToObj(i -> String.format("UCsynth%017d", (long) futures.size() * 50 + i + 1))
+                    .toList();
+            futures.add(callers.submit(() -> {
+                try {
+                    if (connector.fetchCounters(ids).size() == ids.size()) succeeded.incrementAndGet();
+                    else failed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            }));
+        }
+
+        long until = System.nanoTime() + deadline.toNanos();
+        boolean allFinished = true;
+        for (Future<?> future : futures) {
+            try {
+                future.get(Math.max(0, until - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                allFinished = false;
+            }
+        }
+        return new Outcome(succeeded.get(), failed.get(), allFinished);
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("upstream", "youtube").gauge().value();
+    }
+
+    private static SocialProperties.FaultRule rule(Duration median, Duration p99, double errorRate,
+                                                   double quotaRate, double stallRate) {
+        return new SocialProperties.FaultRule(median, p99, errorRate, quotaRate, stallRate);
+    }
+}
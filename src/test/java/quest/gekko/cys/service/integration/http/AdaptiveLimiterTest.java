@@ -0,0 +1,63 @@
+package quest.gekko.cys.service.integration.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveLimiterTest {
+    private static final long TARGET = Duration.ofMillis(100).toNanos();
+
+    @Test
+    void fastSuccessesGrowTheLimitByAboutOnePerLimitsWorthOfCalls() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 4, 1, 16, TARGET, 10);
+
+        for (int i = 0; i < 4; i++) limiter.acquire().block().release(AdaptiveLimiter.Outcome.SUCCESS, 0);
+        assertThat(limiter.limit()).isEqualTo(4);
+
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.SUCCESS, 0);
+        assertThat(limiter.limit()).isEqualTo(5);
+    }
+
+    @Test
+    void slowSuccessShrinksByTenPercentAndOverloadHalvesDownToTheMinimum() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 3, 16, TARGET, 10);
+
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.SUCCESS, 2 * TARGET);
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.OVERLOAD, 0);
+        assertThat(limiter.limit()).isEqualTo(4);
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.OVERLOAD, 0);
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void failuresAndCancellationsLeaveTheLimitAlone() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 6, 1, 16, TARGET, 10);
+
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.FAILURE, 0);
+        limiter.acquire().block().release(AdaptiveLimiter.Outcome.CANCELLED, 0);
+        assertThat(limiter.limit()).isEqualTo(6);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void callersOverTheLimitQueueAndAreRejectedOnceTheQueueIsFull() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter("test", 1, 1, 1, TARGET, 1);
+        AdaptiveLimiter.Permit first = limiter.acquire().block();
+
+        CompletableFuture<AdaptiveLimiter.Permit> queued = limiter.acquire().toFuture();
+        assertThat(queued).isNotDone();
+        assertThatThrownBy(() -> limiter.acquire().block())
+                .isInstanceOf(AdaptiveLimiter.LimitExceededException.class);
+
+        first.release(AdaptiveLimiter.Outcome.SUCCESS, 0);
+        first.release(AdaptiveLimiter.Outcome.SUCCESS, 0);
+        assertThat(queued).isDone();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,78 @@
+package quest.gekko.cys.service.integration.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateIsReached() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 0.5, Duration.ofHours(1));
+
+        breaker.record(breaker.tryPass(), true);
+        breaker.record(breaker.tryPass(), false);
+        breaker.record(breaker.tryPass(), false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        breaker.record(breaker.tryPass(), true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryPass()).isNull();
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThroughAndItsSuccessCloses() {
+        CircuitBreaker breaker = tripped(Duration.ZERO);
+
+        CircuitBreaker.Pass probe = breaker.tryPass();
+        assertThat(probe.probe()).isTrue();
+        assertThat(breaker.tryPass()).isNull();
+
+        breaker.record(probe, false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryPass().probe()).isFalse();
+    }
+
+    @Test
+    void failedProbeReopens() {
+        CircuitBreaker breaker = tripped(Duration.ZERO);
+
+        breaker.record(breaker.tryPass(), true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void lateResultOfAClosedStateCallDoesNotSettleTheProbe() {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, Duration.ZERO);
+        CircuitBreaker.Pass slow = breaker.tryPass();
+        breaker.record(breaker.tryPass(), true);
+        breaker.record(breaker.tryPass(), true);
+
+        CircuitBreaker.Pass probe = breaker.tryPass();
+        breaker.record(slow, false);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryPass()).isNull();
+
+        breaker.record(probe, true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void releasedProbeLetsTheNextOneThrough() {
+        CircuitBreaker breaker = tripped(Duration.ZERO);
+
+        breaker.release(breaker.tryPass());
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryPass()).isNotNull();
+    }
+
+    private static CircuitBreaker tripped(Duration openFor) {
+        CircuitBreaker breaker = new CircuitBreaker(2, 2, 0.5, openFor);
+        breaker.record(breaker.tryPass(), true);
+        breaker.record(breaker.tryPass(), true);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+}
@@ -0,0 +1,90 @@
+package quest.gekko.cys.service.integration.http;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboundGovernorTest {
+
+    @Test
+    void retryAfterReadsSecondsAndHttpDates() {
+        assertThat(OutboundGovernor.retryAfter(unavailable(" 7 "))).contains(Duration.ofSeconds(7));
+
+        String inAMinute = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(60));
+        assertThat(OutboundGovernor.retryAfter(unavailable(inAMinute)).orElseThrow())
+                .isBetween(Duration.ofSeconds(55), Duration.ofSeconds(60));
+
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).minusHours(1));
+        assertThat(OutboundGovernor.retryAfter(unavailable(past))).contains(Duration.ZERO);
+
+        assertThat(OutboundGovernor.retryAfter(unavailable("soon"))).isEmpty();
+        assertThat(OutboundGovernor.retryAfter(unavailable(null))).isEmpty();
+        assertThat(OutboundGovernor.retryAfter(new IllegalStateException())).isEmpty();
+    }
+
+    @Test
+    void admissionRunsOncePerLogicalCallAcrossRetries() {
+        OutboundGovernor governor = governor(3, 1);
+        AtomicInteger admits = new AtomicInteger();
+        AtomicInteger calls = new AtomicInteger();
+
+        Mono<String> call = Mono.defer(() -> calls.incrementAndGet() == 1 ? Mono.error(unavailable(null)) : Mono.just("ok"));
+
+        assertThat(governor.guard(call, admits::incrementAndGet).block()).isEqualTo("ok");
+        assertThat(calls).hasValue(2);
+        assertThat(admits).hasValue(1);
+    }
+
+    @Test
+    void openBreakerRejectsWithoutAdmitting() {
+        OutboundGovernor governor = governor(1, 1);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> governor.guard(Mono.error(unavailable(null))).block())
+                    .isInstanceOf(WebClientResponseException.class);
+        }
+        AtomicInteger admits = new AtomicInteger();
+
+        assertThatThrownBy(() -> governor.guard(Mono.just("ok"), admits::incrementAndGet).block())
+                .isInstanceOf(CircuitBreaker.CircuitOpenException.class);
+        assertThat(admits).hasValue(0);
+    }
+
+    @Test
+    void refusedAdmissionIsNotRetriedAndFreesThePermit() {
+        // One permit and no queue: a leaked permit would reject the second call
+        OutboundGovernor governor = governor(3, 1);
+        AtomicInteger calls = new AtomicInteger();
+        Mono<String> call = Mono.fromSupplier(() -> "ok" + calls.incrementAndGet());
+
+        assertThatThrownBy(() -> governor.guard(call, () -> { throw new IllegalStateException("no quota"); }).block())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("no quota");
+        assertThat(calls).hasValue(0);
+
+        assertThat(governor.guard(call).block()).isEqualTo("ok1");
+    }
+
+    private static OutboundGovernor governor(int maxAttempts, int limit) {
+        var props = new SocialProperties.Outbound(limit, 1, limit, Duration.ofSeconds(1), 0, Duration.ofSeconds(1),
+                maxAttempts, Duration.ofMillis(1), Duration.ofMillis(50), 2, 2, 0.5, Duration.ofHours(1));
+        return new OutboundGovernor("test", props, new SimpleMeterRegistry());
+    }
+
+    private static WebClientResponseException unavailable(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        return WebClientResponseException.create(503, "Service Unavailable", headers, new byte[0], null);
+    }
+}
@@ -0,0 +1,113 @@
+package quest.gekko.cys.service.integration.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import quest.gekko.cys.config.SocialProperties;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordReplayFilterTest {
+    private static final String CHANNEL = """
+            {"items":[{"id":"UCrecorded0000000000000a","snippet":{"title":"Recorded"},"statistics":{"subscriberCount":"42"}}]}""";
+    private static final String CHANNELS_URL =
+            "https://www.googleapis.com/youtube/v3/channels?part=snippet,statistics&id=UCrecorded0000000000000a&key=";
+
+    private static final ExchangeFunction OFFLINE = request -> Mono.error(new AssertionError("Replay went to the network"));
+
+    @TempDir
+    Path fixtures;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void recordedResponseIsReplayedForTheExactUrl() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        ExchangeFunction upstream = request -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(CHANNEL)
+                    .build());
+        };
+
+        RecordReplayFilter recorder = filter(SocialProperties.FixtureMode.RECORD);
+        assertThat(body(recorder, CHANNELS_URL + "real-key", upstream)).isEqualTo(CHANNEL);
+        assertThat(upstreamCalls).hasValue(1);
+
+        // The API key is not part of the fixture's identity
+        RecordReplayFilter replayer = filter(SocialProperties.FixtureMode.REPLAY);
+        assertThat(replayer.recordedChannels()).isEqualTo(1);
+        assertThat(body(replayer, CHANNELS_URL + "other-key", OFFLINE)).isEqualTo(CHANNEL);
+
+        ClientResponse unrecorded = replayer.filter(get("https://www.googleapis.com/youtube/v3/playlistItems?playlistId=x"), OFFLINE).block();
+        assertThat(unrecorded.statusCode().value()).isEqualTo(404);
+        unrecorded.releaseBody().block();
+    }
+
+    @Test
+    void onlySuccessfulResponsesAreRecorded() throws IOException {
+        ExchangeFunction failing = request -> Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).body("{}").build());
+
+        ClientResponse response = filter(SocialProperties.FixtureMode.RECORD).filter(get(CHANNELS_URL + "k"), failing).block();
+        assertThat(response.statusCode().value()).isEqualTo(503);
+        response.releaseBody().block();
+
+        try (Stream<Path> files = Files.list(fixtures)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void syntheticIdsAreTheIdsTheChannelSeederInserts() throws IOException {
+        // SyntheticChannelRepository.ensure inserts prefix || lpad(g::text, 17, '0') for g = 1..count
+        for (long g : new long[] {1, 42, 999_999, 1_000_000, 12_345_678_901_234_567L}) {
+            String seeded = SyntheticYouTube.ID_PREFIX + lpad(Long.toString(g), 17, '0');
+            assertThat(SyntheticYouTube.syntheticId(g)).isEqualTo(seeded).hasSize(24);
+        }
+
+        // And replay answers for a seeded id with a channel of that id
+        String seeded = SyntheticYouTube.ID_PREFIX + lpad("1000000", 17, '0');
+        String body = body(filter(SocialProperties.FixtureMode.REPLAY),
+                "https://www.googleapis.com/youtube/v3/channels?part=snippet,statistics&id=" + seeded, OFFLINE);
+        JsonNode items = objectMapper.readTree(body).path("items");
+        assertThat(items).hasSize(1);
+        assertThat(items.get(0).path("id").asText()).isEqualTo(seeded);
+    }
+
+    private RecordReplayFilter filter(SocialProperties.FixtureMode mode) {
+        return new RecordReplayFilter(new SocialProperties.Fixtures(mode, fixtures, Duration.ZERO, Duration.ZERO, 1_000_000),
+                objectMapper, new SimpleMeterRegistry());
+    }
+
+    private static String body(RecordReplayFilter filter, String url, ExchangeFunction next) {
+        return filter.filter(get(url), next).flatMap(r -> r.bodyToMono(String.class)).block();
+    }
+
+    private static ClientRequest get(String url) {
+        return ClientRequest.create(HttpMethod.GET, URI.create(url)).build();
+    }
+
+    // Postgres lpad: left-pad to length, truncating longer input on the right
+    private static String lpad(String s, int length, char fill) {
+        return s.length() >= length ? s.substring(0, length) : String.valueOf(fill).repeat(length - s.length()) + s;
+    }
+}
@@ -0,0 +1,147 @@
+package quest.gekko.cys.service.integration.quota;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import quest.gekko.cys.config.SocialProperties;
+import quest.gekko.cys.repository.InMemoryQuotaSpendRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuotaLedgerTest {
+    private static final ZoneId PACIFIC = ZoneId.of("America/Los_Angeles");
+
+    private static final SocialProperties.YouTubeQuota QUOTA = new SocialProperties.YouTubeQuota(10_000, 0.5, 0.3);
+
+    private final InMemoryQuotaSpendRepository store = new InMemoryQuotaSpendRepository();
+    private MutableClock clock;
+    private QuotaLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(ZonedDateTime.of(2025, 8, 14, 12, 0, 0, 0, PACIFIC).toInstant());
+        // 10000 units: ingestion 5000, search 3000, discovery 2000
+        ledger = new QuotaLedger(QUOTA, store, new SimpleMeterRegistry(), clock);
+    }
+
+    @Test
+    void sharesAreNestedByPriority() {
+        assertThat(ledger.remaining(QuotaConsumer.INGESTION)).isEqualTo(10_000);
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isEqualTo(5_000);
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isEqualTo(2_000);
+
+        spend(QuotaConsumer.DISCOVERY, 2_000);
+
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isZero();
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isEqualTo(3_000);
+        assertThat(ledger.remaining(QuotaConsumer.INGESTION)).isEqualTo(8_000);
+        assertThatThrownBy(() -> ledger.acquire(QuotaConsumer.DISCOVERY, YouTubeEndpoint.CHANNELS_LIST))
+                .isInstanceOf(QuotaExceededException.class);
+    }
+
+    @Test
+    void overflowFromHigherPriorityConsumerShrinksLowerAllowances() {
+        // Ingestion runs 2000 units past its own share
+        spend(QuotaConsumer.INGESTION, 7_000);
+
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isEqualTo(3_000);
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isEqualTo(2_000);
+
+        spend(QuotaConsumer.INGESTION, 3_000);
+
+        assertThat(ledger.remaining(QuotaConsumer.INGESTION)).isZero();
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isZero();
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isZero();
+        assertThat(ledger.tryAcquire(QuotaConsumer.SEARCH, YouTubeEndpoint.CHANNELS_LIST)).isFalse();
+        assertThat(ledger.tryAcquire(QuotaConsumer.DISCOVERY, YouTubeEndpoint.CHANNELS_LIST)).isFalse();
+        assertThat(ledger.spentToday().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(10_000);
+    }
+
+    @Test
+    void searchCannotTakeWhatIngestionLeftToDiscovery() {
+        spend(QuotaConsumer.INGESTION, 6_000);
+        spend(QuotaConsumer.SEARCH, 3_000);
+
+        // 1000 left in the day, although discovery's own share is 2000
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isEqualTo(1_000);
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isEqualTo(1_000);
+    }
+
+    @Test
+    void rollsOverAtPacificMidnight() {
+        spend(QuotaConsumer.INGESTION, 10_000);
+        assertThat(ledger.remaining(QuotaConsumer.SEARCH)).isZero();
+
+        // 23:59 Pacific is still the same quota day
+        clock.set(ZonedDateTime.of(2025, 8, 14, 23, 59, 0, 0, PACIFIC).toInstant());
+        assertThat(ledger.remaining(QuotaConsumer.INGESTION)).isZero();
+
+        clock.advance(Duration.ofMinutes(2));
+        assertThat(ledger.remaining(QuotaConsumer.INGESTION)).isEqualTo(10_000);
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isEqualTo(2_000);
+        assertThat(ledger.spentToday()).allSatisfy((consumer, spent) -> assertThat(spent).isZero());
+    }
+
+    @Test
+    void nodesSharingTheStoreDrawOnOneBudget() {
+        QuotaLedger otherNode = new QuotaLedger(QUOTA, store, new SimpleMeterRegistry(), clock);
+
+        spend(ledger, QuotaConsumer.DISCOVERY, 1_500);
+        spend(otherNode, QuotaConsumer.DISCOVERY, 500);
+
+        assertThat(ledger.remaining(QuotaConsumer.DISCOVERY)).isZero();
+        assertThatThrownBy(() -> otherNode.acquire(QuotaConsumer.DISCOVERY, YouTubeEndpoint.CHANNELS_LIST))
+                .isInstanceOf(QuotaExceededException.class);
+
+        // A restarted node picks up the day's spend instead of starting from zero
+        QuotaLedger restarted = new QuotaLedger(QUOTA, store, new SimpleMeterRegistry(), clock);
+        assertThat(restarted.spentToday()).containsEntry(QuotaConsumer.DISCOVERY, 2_000L);
+        assertThat(restarted.remaining(QuotaConsumer.INGESTION)).isEqualTo(8_000);
+    }
+
+    private void spend(QuotaConsumer consumer, int units) {
+        spend(ledger, consumer, units);
+    }
+
+    private static void spend(QuotaLedger ledger, QuotaConsumer consumer, int units) {
+        for (int i = 0; i < units; i++) ledger.acquire(consumer, YouTubeEndpoint.CHANNELS_LIST);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant instant) {
+            now = instant;
+        }
+
+        void advance(Duration by) {
+            now = now.plus(by);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package quest.gekko.cys.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LogHistogramTest {
+
+    @Test
+    void percentilesStayWithinBucketError() {
+        Random random = new Random(7);
+        long[] values = new long[100_000];
+        LogHistogram h = new LogHistogram();
+        for (int i = 0; i < values.length; i++) {
+            // Heavy-tailed like subscriber counts, with some negative growth
+            values[i] = (long) Math.exp(random.nextDouble() * 18) * (random.nextInt(20) == 0 ? -1 : 1);
+            h.add(values[i]);
+        }
+        h.seal();
+        Arrays.sort(values);
+
+        for (double p : new double[]{1, 10, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            assertThat((double) h.valueAt(p)).isCloseTo(exact, within(Math.abs(exact) * 0.04 + 1));
+        }
+        long median = values[values.length / 2];
+        assertThat(h.percentileOf(median)).isCloseTo(50, within(1.0));
+        assertThat(h.percentileOf(values[0] - 1)).isLessThan(0.01);
+        assertThat(h.octaves().stream().mapToLong(LogHistogram.Bucket::count).sum()).isEqualTo(values.length);
+    }
+
+    @Test
+    void mergeAndRoundTripPreserveCounts() {
+        LogHistogram a = new LogHistogram();
+        LogHistogram b = new LogHistogram();
+        LogHistogram both = new LogHistogram();
+        for (long v = -500; v < 5_000; v += 7) {
+            (v % 2 == 0 ? a : b).add(v * 1_000);
+            both.add(v * 1_000);
+        }
+        a.merge(b);
+
+        LogHistogram restored = LogHistogram.fromBytes(a.seal().toBytes());
+
+        assertThat(restored.count()).isEqualTo(both.count());
+        assertThat(restored.min()).isEqualTo(both.min());
+        assertThat(restored.max()).isEqualTo(both.max());
+        assertThat(restored.buckets()).isEqualTo(both.seal().buckets());
+        assertThat(restored.valueAt(50)).isEqualTo(both.valueAt(50));
+    }
+}
@@ -0,0 +1,69 @@
+package quest.gekko.cys.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the tree against a plain sorted list after a random mix of inserts, moves and removals.
+ */
+class OrderStatisticTreeTest {
+
+    @Test
+    void matchesSortedReference() {
+        Random random = new Random(42);
+        OrderStatisticTree tree = new OrderStatisticTree(16);
+        Map<Long, Long> reference = new HashMap<>();
+
+        for (int op = 0; op < 20_000; op++) {
+            long id = random.nextInt(2_000);
+            if (random.nextInt(10) == 0) {
+                tree.remove(id);
+                reference.remove(id);
+            } else {
+                // Narrow value range so ties are common
+                long value = random.nextInt(500);
+                tree.put(id, value);
+                reference.put(id, value);
+            }
+        }
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(reference.entrySet());
+        sorted.sort(Comparator.<Map.Entry<Long, Long>>comparingLong(Map.Entry::getValue).reversed()
+                .thenComparingLong(Map.Entry::getKey));
+
+        assertThat(tree.size()).isEqualTo(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            long id = sorted.get(i).getKey();
+            long value = sorted.get(i).getValue();
+            long greater = sorted.stream().filter(e -> e.getValue() > value).count();
+
+            assertThat(tree.idAt(i)).isEqualTo(id);
+            assertThat(tree.valueAt(i)).isEqualTo(value);
+            assertThat(tree.positionOf(id)).isEqualTo(i);
+            assertThat(tree.rankOf(id)).isEqualTo(greater + 1);
+            assertThat(tree.valueOf(id)).isEqualTo(value);
+        }
+    }
+
+    @Test
+    void absentIdsHaveNoRank() {
+        OrderStatisticTree tree = new OrderStatisticTree(16);
+        tree.put(1, 10);
+        tree.put(2, 20);
+        tree.remove(1);
+
+        assertThat(tree.contains(1)).isFalse();
+        assertThat(tree.rankOf(1)).isZero();
+        assertThat(tree.positionOf(1)).isEqualTo(-1);
+        assertThat(tree.rankOf(2)).isEqualTo(1);
+        assertThat(tree.countGreater(5)).isEqualTo(1);
+    }
+}